@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.4"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "edu.renata.fraga"
@@ -18,14 +19,121 @@ repositories {
 	mavenCentral()
 }
 
+// Load generator HTTP com HdrHistogram (src/loadtest/java): ./gradlew loadTest --args="run --url ..."
+val loadtest: SourceSet by sourceSets.creating
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-webflux")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("org.springframework.boot:spring-boot-starter-jdbc")
+	implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+	runtimeOnly("com.h2database:h2")
+	runtimeOnly("io.r2dbc:r2dbc-h2")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("io.projectreactor:reactor-test")
+	testImplementation("io.projectreactor.tools:blockhound:1.0.11.RELEASE")
+	testImplementation("io.projectreactor.tools:blockhound-junit-platform:1.0.11.RELEASE")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	"loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+	"loadtestImplementation"("com.fasterxml.jackson.core:jackson-databind")
+}
+
+// O load generator não tem testes, mas compila no check (CI)
+tasks.check {
+	dependsOn(tasks.named(loadtest.classesTaskName))
+}
+
+tasks.register<JavaExec>("loadTest") {
+	group = "benchmark"
+	description = "Executa o load generator em taxa fixa contra uma aplicação em execução"
+	classpath = loadtest.runtimeClasspath
+	mainClass = "edu.renata.fraga.java_virtual_threads_sample.loadtest.LoadGenerator"
+}
+
+// Startup rápido: Spring AOT (-PaotProfile=<profile>) e arquivos AppCDS por profile em build/startup.
+// O AOT congela as condições de beans (@Profile, spring.threads.virtual.enabled) no build, então cada
+// profile precisa do próprio build AOT; sem -PaotProfile o jar não passa pelo processAot
+val startupProfiles = listOf("mvc-traditional", "mvc-virtual", "webflux-traditional", "webflux-virtual")
+val aotProfile: String? = providers.gradleProperty("aotProfile").orNull
+if (aotProfile != null) {
+	apply(plugin = "org.springframework.boot.aot")
+	tasks.named<JavaExec>("processAot") {
+		args("--spring.profiles.active=$aotProfile")
+	}
+}
+
+val startupDir = layout.buildDirectory.dir("startup/" + (aotProfile?.let { "aot-$it" } ?: "jit"))
+val startupJava = javaToolchains.launcherFor(java.toolchain).map { it.executablePath.asFile.absolutePath }
+
+val extractBootJar by tasks.registering(Exec::class) {
+	group = "startup"
+	description = "Extrai o bootJar no layout exigido pelo CDS (jar da aplicação + lib/)"
+	val bootJar = tasks.bootJar.flatMap { it.archiveFile }
+	val destination = startupDir.map { it.dir("app") }
+	// Launcher do toolchain gravado ao lado do jar: o CDS só vale com a mesma JVM que gerou o arquivo
+	val launcher = startupDir.map { it.file("java-launcher") }
+	inputs.file(bootJar)
+	inputs.property("java", startupJava)
+	outputs.dir(destination)
+	outputs.file(launcher)
+	doFirst {
+		executable = startupJava.get()
+		args("-Djarmode=tools", "-jar", bootJar.get().asFile.absolutePath,
+			"extract", "--force", "--destination", destination.get().asFile.absolutePath)
+	}
+	doLast {
+		launcher.get().asFile.writeText(startupJava.get())
+	}
+}
+
+val cdsArchives by tasks.registering {
+	group = "startup"
+	description = "Gera um arquivo AppCDS por profile (com -PaotProfile, só o do build AOT)"
+}
+
+(aotProfile?.let { listOf(it) } ?: startupProfiles).forEach { profile ->
+	val cdsArchive = tasks.register<Exec>("cdsArchive-$profile") {
+		group = "startup"
+		description = "Arquivo AppCDS do profile $profile: execução de treino até o refresh do contexto"
+		val applicationJar = startupDir.zip(tasks.bootJar.flatMap { it.archiveFileName }) { dir, name ->
+			dir.file("app/$name")
+		}
+		val archive = startupDir.map { it.file("$profile.jsa") }
+		inputs.files(extractBootJar)
+		outputs.file(archive)
+		doFirst {
+			// Classpath absoluto: a execução com o arquivo precisa usar exatamente o mesmo
+			executable = startupJava.get()
+			args(listOfNotNull(
+				"-XX:ArchiveClassesAtExit=${archive.get().asFile.absolutePath}",
+				"-Dspring.context.exit=onRefresh",
+				aotProfile?.let { "-Dspring.aot.enabled=true" },
+				"-jar", applicationJar.get().asFile.absolutePath,
+				"--spring.profiles.active=$profile",
+				"--server.port=0"))
+		}
+	}
+	cdsArchives { dependsOn(cdsArchive) }
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	// BlockHound (instalado em todos os testes): chamada blocking em thread non-blocking falha o build
+	jvmArgs("-XX:+AllowRedefinitionToAddDeleteMethods", "-XX:+EnableDynamicAgentLoading")
+}
+
+// Microbenchmarks (src/jmh/java): ./gradlew jmh
+jmh {
+	warmupIterations = 2
+	iterations = 3
+	fork = 1
+	benchmarkMode = listOf("thrpt", "avgt")
+	timeUnit = "us"
+	profilers = listOf("gc")
+	resultFormat = "JSON"
 }
@@ -288,11 +288,12 @@ start_application() {
     pkill -f "java-virtual-threads-sample" 2>/dev/null || true
     sleep 2
     
-    # Iniciar nova aplicação
-    java -jar build/libs/java-virtual-threads-sample-0.0.1-SNAPSHOT.jar \
+    # Iniciar nova aplicação (LAUNCH_PREFIX/JVM_ARGS: taskset e flags da JVM do sweep de cores)
+    ${LAUNCH_PREFIX:-} java ${JVM_ARGS:-} -jar build/libs/java-virtual-threads-sample-0.0.1-SNAPSHOT.jar \
         --spring.profiles.active="$profile" \
         --server.port=$PORT \
         --logging.level.root=WARN \
+        ${APP_ARGS:-} \
         > /tmp/app-$profile.log 2>&1 &
     
     local pid=$!
@@ -477,6 +478,7 @@ generate_simple_comparison_report() {
     local mvc_virtual=$2
     local webflux_traditional=$3
     local webflux_virtual=$4
+    local webflux_hybrid=$5
     
     echo "" >> "$RESULTS_FILE"
     echo "===============================================" >> "$RESULTS_FILE"
@@ -536,6 +538,23 @@ generate_simple_comparison_report() {
         echo "" >> "$RESULTS_FILE"
     fi
     
+    if [[ ! -z "$webflux_virtual" && ! -z "$webflux_hybrid" ]]; then
+        IFS='|' read -ra flux_virt <<< "$webflux_virtual"
+        IFS='|' read -ra flux_hybrid <<< "$webflux_hybrid"
+        
+        local flux_virt_avg=$(echo "${flux_virt[0]}" | cut -d':' -f1)
+        local flux_hybrid_avg=$(echo "${flux_hybrid[0]}" | cut -d':' -f1)
+        
+        echo "🔹 WEBFLUX HÍBRIDO vs WEBFLUX COM VIRTUAL THREADS:" >> "$RESULTS_FILE"
+        echo "  Tempo Médio:" >> "$RESULTS_FILE"
+        echo "    • WebFlux (publishOn manual): ${flux_virt_avg}ms" >> "$RESULTS_FILE"
+        echo "    • Híbrido (Netty + handlers VT): ${flux_hybrid_avg}ms" >> "$RESULTS_FILE"
+        echo "  Teste de Carga ($CONCURRENT_REQUESTS requisições):" >> "$RESULTS_FILE"
+        echo "    • WebFlux (publishOn manual): ${flux_virt[1]}ms total" >> "$RESULTS_FILE"
+        echo "    • Híbrido (Netty + handlers VT): ${flux_hybrid[1]}ms total" >> "$RESULTS_FILE"
+        echo "" >> "$RESULTS_FILE"
+    fi
+    
     # Resumo geral
     echo "🎯 RESUMO EXECUTIVO:" >> "$RESULTS_FILE"
     echo "  Virtual Threads são mais eficazes quando:" >> "$RESULTS_FILE"
@@ -661,6 +680,7 @@ show_simple_summary() {
     local mvc_virtual=$2
     local webflux_traditional=$3
     local webflux_virtual=$4
+    local webflux_hybrid=$5
     
     echo -e "${CYAN}📈 RESUMO DOS RESULTADOS:${NC}"
     echo ""
@@ -713,12 +733,22 @@ show_simple_summary() {
         echo ""
     fi
     
+    if [[ ! -z "$webflux_hybrid" ]]; then
+        IFS='|' read -ra flux_hybrid <<< "$webflux_hybrid"
+        
+        local flux_hybrid_avg=$(echo "${flux_hybrid[0]}" | cut -d':' -f1)
+        
+        echo -e "${BLUE}🔹 WebFlux Híbrido:${NC}"
+        echo "   • Netty + handlers em Virtual Threads: ${flux_hybrid_avg}ms"
+        echo ""
+    fi
+    
     echo -e "${SILVER}💡 Dica: Veja o relatório completo em $RESULTS_FILE${NC}"
 }
 
 # Executar benchmark simplificado (4 cenários principais)
 run_simple_benchmark() {
-    echo -e "${TEAL}🚀 Benchmark Simples - 4 Cenários Principais${NC}"
+    echo -e "${TEAL}🚀 Benchmark Simples - 5 Cenários Principais${NC}"
     echo ""
     
     # Preparação
@@ -742,6 +772,7 @@ run_simple_benchmark() {
     echo "2. Spring MVC com Virtual Threads" >> "$RESULTS_FILE"
     echo "3. Spring WebFlux sem Virtual Threads" >> "$RESULTS_FILE"
     echo "4. Spring WebFlux com Virtual Threads" >> "$RESULTS_FILE"
+    echo "5. WebFlux híbrido (Netty + handlers em Virtual Threads)" >> "$RESULTS_FILE"
     echo "" >> "$RESULTS_FILE"
     
     # Variáveis para armazenar resultados
@@ -749,9 +780,10 @@ run_simple_benchmark() {
     local mvc_virtual=""
     local webflux_traditional=""
     local webflux_virtual=""
+    local webflux_hybrid=""
     
     # 1. Spring MVC sem Virtual Threads
-    echo -e "${BLUE}📊 [1/4] Spring MVC sem Virtual Threads${NC}"
+    echo -e "${BLUE}📊 [1/5] Spring MVC sem Virtual Threads${NC}"
     mvc_traditional=$(test_single_endpoint \
         "mvc-traditional" \
         "Spring MVC (Threads Tradicionais)" \
@@ -759,7 +791,7 @@ run_simple_benchmark() {
         "Spring MVC com threads tradicionais e I/O intensivo (500ms/request)")
     
     # 2. Spring MVC com Virtual Threads
-    echo -e "${BLUE}📊 [2/4] Spring MVC com Virtual Threads${NC}"
+    echo -e "${BLUE}📊 [2/5] Spring MVC com Virtual Threads${NC}"
     mvc_virtual=$(test_single_endpoint \
         "mvc-virtual" \
         "Spring MVC (Virtual Threads)" \
@@ -767,7 +799,7 @@ run_simple_benchmark() {
         "Spring MVC com Virtual Threads e I/O intensivo (500ms/request)")
     
     # 3. Spring WebFlux sem Virtual Threads
-    echo -e "${BLUE}📊 [3/4] Spring WebFlux sem Virtual Threads${NC}"
+    echo -e "${BLUE}📊 [3/5] Spring WebFlux sem Virtual Threads${NC}"
     webflux_traditional=$(test_single_endpoint \
         "webflux-traditional" \
         "Spring WebFlux (Threads Tradicionais)" \
@@ -775,26 +807,36 @@ run_simple_benchmark() {
         "Spring WebFlux com schedulers tradicionais e I/O intensivo")
     
     # 4. Spring WebFlux com Virtual Threads
-    echo -e "${BLUE}📊 [4/4] Spring WebFlux com Virtual Threads${NC}"
+    echo -e "${BLUE}📊 [4/5] Spring WebFlux com Virtual Threads${NC}"
     webflux_virtual=$(test_single_endpoint \
         "webflux-virtual" \
         "Spring WebFlux (Virtual Threads)" \
         "/api/webflux/persons/list-intensive?count=10" \
         "Spring WebFlux com Virtual Threads no boundedElastic e I/O intensivo")
+
+    # 5. WebFlux híbrido: Netty + handlers imperativos em Virtual Threads
+    echo -e "${BLUE}📊 [5/5] WebFlux híbrido (Netty + Virtual Threads)${NC}"
+    webflux_hybrid=$(test_single_endpoint \
+        "webflux-hybrid" \
+        "WebFlux Híbrido (Netty + Virtual Threads)" \
+        "/api/hybrid/persons/blocking-intensive?count=10" \
+        "RouterFunction no Netty com handlers blocking em Virtual Threads e I/O intensivo")
     
     # Gerar relatório de comparação simplificado
     generate_simple_comparison_report \
         "$mvc_traditional" \
         "$mvc_virtual" \
         "$webflux_traditional" \
-        "$webflux_virtual"
+        "$webflux_virtual" \
+        "$webflux_hybrid"
     
     # Exibir resumo simples na tela
     show_simple_summary \
         "$mvc_traditional" \
         "$mvc_virtual" \
         "$webflux_traditional" \
-        "$webflux_virtual"
+        "$webflux_virtual" \
+        "$webflux_hybrid"
     
     # Exibir resumo final
     echo ""
@@ -806,6 +848,247 @@ run_simple_benchmark() {
     echo -e "${SILVER}💡 Dica: Veja o relatório completo em $RESULTS_FILE${NC}"
 }
 
+# Benchmark em taxa fixa com HdrHistogram (load generator Java em src/loadtest)
+run_hdr_benchmark() {
+    local rate=${LOAD_RATE:-50}
+    local duration=${LOAD_DURATION:-30s}
+    local warmup=${LOAD_WARMUP:-5s}
+    local output_dir="build/loadtest/$(date +%Y%m%d-%H%M%S)"
+
+    echo -e "${TEAL}📈 Benchmark HdrHistogram - taxa fixa de ${rate} req/s por ${duration}${NC}"
+    echo ""
+
+    check_dependencies
+    build_project
+    ./gradlew -q loadtestClasses
+
+    local scenarios=(
+        "mvc-traditional|/api/mvc/persons/blocking-intensive?count=10"
+        "mvc-virtual|/api/mvc/persons/blocking-intensive?count=10"
+        "webflux-traditional|/api/webflux/persons/list-intensive?count=10"
+        "webflux-virtual|/api/webflux/persons/list-intensive?count=10"
+        "webflux-hybrid|/api/hybrid/persons/blocking-intensive?count=10"
+    )
+    local results=()
+
+    for scenario in "${scenarios[@]}"; do
+        local profile="${scenario%%|*}"
+        local endpoint="${scenario#*|}"
+
+        if start_application "$profile" "$profile"; then
+            ./gradlew -q loadTest --args="run --url http://localhost:$PORT$endpoint --rate $rate --duration $duration --warmup $warmup --label $profile --output $output_dir/$profile.json"
+            results+=("$output_dir/$profile.json")
+            stop_application
+        else
+            echo -e "${RED}❌ Falha ao iniciar $profile${NC}"
+        fi
+    done
+
+    echo ""
+    echo -e "${CYAN}📊 Comparação (latência corrigida para coordinated omission):${NC}"
+    ./gradlew -q loadTest --args="compare ${results[*]}" | tee "$output_dir/comparison.txt"
+    echo ""
+    echo -e "${AMBER}📄 Resultados JSON em: $output_dir${NC}"
+}
+
+# Carga mista I/O + CPU: cada profile com as três estratégias de enriquecimento,
+# em taxa fixa - mostra como o trabalho de CPU disputa as carriers / event loops
+run_mixed_benchmark() {
+    local rate=${LOAD_RATE:-50}
+    local duration=${LOAD_DURATION:-30s}
+    local warmup=${LOAD_WARMUP:-5s}
+    local count=${MIXED_COUNT:-20}
+    local output_dir="build/loadtest/mixed-$(date +%Y%m%d-%H%M%S)"
+    local max_cores=$(nproc 2>/dev/null || sysctl -n hw.ncpu)
+
+    # Sweep de cores: 1, 2, 4... até o total da máquina (ou MIXED_CORES="1 4 8")
+    local cores_list=()
+    if [ -n "${MIXED_CORES:-}" ]; then
+        read -r -a cores_list <<< "$MIXED_CORES"
+    else
+        local cores=1
+        while [ "$cores" -lt "$max_cores" ]; do
+            cores_list+=("$cores")
+            cores=$((cores * 2))
+        done
+        cores_list+=("$max_cores")
+    fi
+
+    echo -e "${TEAL}🧮 Benchmark misto I/O + CPU - ${rate} req/s por ${duration}, ${count} pessoas/req, cores: ${cores_list[*]} (de ${max_cores})${NC}"
+    echo ""
+
+    check_dependencies
+    build_project
+    ./gradlew -q loadtestClasses
+
+    local scenarios=(
+        "mvc-traditional|/api/mvc/persons/enriched"
+        "mvc-virtual|/api/mvc/persons/enriched"
+        "webflux-traditional|/api/webflux/persons/enriched"
+        "webflux-virtual|/api/webflux/persons/enriched"
+        "webflux-hybrid|/api/hybrid/persons/enriched"
+    )
+    local strategies=(inline fork-join reactor-parallel)
+
+    for cores in "${cores_list[@]}"; do
+        # ActiveProcessorCount dimensiona carriers, ForkJoinPool, Schedulers.parallel() e
+        # event loops; o taskset (Linux) restringe a CPU de fato disponível
+        local launch_prefix=""
+        if command -v taskset > /dev/null 2>&1; then
+            launch_prefix="taskset -c 0-$((cores - 1))"
+        fi
+        local results=()
+
+        for scenario in "${scenarios[@]}"; do
+            local profile="${scenario%%|*}"
+            local endpoint="${scenario#*|}"
+
+            if LAUNCH_PREFIX="$launch_prefix" JVM_ARGS="-XX:ActiveProcessorCount=$cores" \
+                    start_application "$profile" "$profile (${cores} cores)"; then
+                for strategy in "${strategies[@]}"; do
+                    ./gradlew -q loadTest --args="run --url http://localhost:$PORT$endpoint?count=$count&strategy=$strategy --rate $rate --duration $duration --warmup $warmup --label $profile/$strategy/${cores}c --output $output_dir/$profile-$strategy-${cores}c.json"
+                    results+=("$output_dir/$profile-$strategy-${cores}c.json")
+                done
+                stop_application
+            else
+                echo -e "${RED}❌ Falha ao iniciar $profile com $cores cores${NC}"
+            fi
+        done
+
+        echo ""
+        echo -e "${CYAN}📊 Throughput e latência com ${cores} cores:${NC}"
+        ./gradlew -q loadTest --args="compare ${results[*]}" | tee "$output_dir/comparison-${cores}c.txt"
+        echo ""
+    done
+
+    echo -e "${AMBER}📄 Resultados JSON e tabelas por número de cores em: $output_dir${NC}"
+}
+
+# Inicia a aplicação e mede, a partir do launch do processo, o tempo até a primeira
+# requisição com sucesso; imprime "firstRequestMs,startedMs,rssKb"
+measure_startup() {
+    local java_bin=$1
+    local app_dir=$2
+    local profile=$3
+    local endpoint=$4
+    shift 4
+    local log_file="/tmp/startup-$profile.log"
+
+    pkill -f "java-virtual-threads-sample" 2>/dev/null || true
+    sleep 1
+
+    local start=$(get_timestamp_ms)
+    "$java_bin" "$@" -jar "$app_dir/java-virtual-threads-sample-0.0.1-SNAPSHOT.jar" \
+        --spring.profiles.active="$profile" \
+        --server.port=$PORT \
+        --logging.level.root=WARN \
+        --logging.level.edu.renata.fraga.java_virtual_threads_sample.JavaVirtualThreadsSampleApplication=INFO \
+        ${APP_ARGS:-} \
+        > "$log_file" 2>&1 &
+    local pid=$!
+
+    local attempts=0
+    until curl -sf -o /dev/null "http://localhost:$PORT$endpoint"; do
+        if ! kill -0 $pid 2>/dev/null || [ $attempts -ge 3000 ]; then
+            kill $pid 2>/dev/null || true
+            return 1
+        fi
+        sleep 0.02
+        attempts=$((attempts + 1))
+    done
+
+    local first_request=$(( $(get_timestamp_ms) - start ))
+    # RSS no momento em que a primeira requisição teve sucesso (KB, Linux e macOS)
+    local rss=$(ps -o rss= -p $pid | tr -d ' ')
+    local started=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds' "$log_file" | awk '{printf "%d", $4 * 1000}')
+
+    kill $pid 2>/dev/null || true
+    wait $pid 2>/dev/null || true
+    echo "$first_request,${started},$rss"
+}
+
+# Mediana de uma coluna do CSV de startup para um profile/variante
+startup_median() {
+    awk -F, -v profile="$2" -v variant="$3" -v column="$4" \
+        '$1 == profile && $2 == variant && $column != "" {print $column}' "$1" \
+        | sort -n \
+        | awk '{values[NR] = $1} END {if (NR) print values[int((NR + 1) / 2)]}'
+}
+
+# Startup de cada profile com e sem AppCDS / Spring AOT: tempo até a primeira
+# requisição com sucesso e RSS na prontidão (mediana de STARTUP_RUNS execuções)
+run_startup_benchmark() {
+    local runs=${STARTUP_RUNS:-5}
+    local profiles=(${STARTUP_PROFILES:-mvc-traditional mvc-virtual webflux-traditional webflux-virtual})
+    local variants=(jit cds aot aot-cds)
+    local output_dir="build/startup/results-$(date +%Y%m%d-%H%M%S)"
+    local csv="$output_dir/startup.csv"
+
+    echo -e "${TEAL}⏱️  Benchmark de startup - ${runs} execuções por profile e variante (${variants[*]})${NC}"
+    echo ""
+
+    check_dependencies
+
+    # jit: um jar extraído e um arquivo CDS por profile; aot: um build (e um CDS) por profile
+    echo -e "${AMBER}🔨 Gerando jars extraídos, builds AOT e arquivos AppCDS...${NC}"
+    ./gradlew -q cdsArchives
+    for profile in "${profiles[@]}"; do
+        ./gradlew -q -PaotProfile="$profile" cdsArchives
+    done
+
+    mkdir -p "$output_dir"
+    echo "profile,variant,run,firstRequestMs,startedMs,rssKb" > "$csv"
+
+    for profile in "${profiles[@]}"; do
+        local endpoint="/api/mvc/thread-info"
+        if [[ "$profile" == webflux-* ]]; then
+            endpoint="/api/webflux/thread-info"
+        fi
+
+        for variant in "${variants[@]}"; do
+            local dir="$(pwd)/build/startup/jit"
+            local jvm_args=()
+            if [[ "$variant" == aot* ]]; then
+                dir="$(pwd)/build/startup/aot-$profile"
+                jvm_args+=("-Dspring.aot.enabled=true")
+            fi
+            if [[ "$variant" == *cds ]]; then
+                # -Xshare:on: arquivo inválido ou de outra JVM derruba a execução em vez de medir sem CDS
+                jvm_args+=("-XX:SharedArchiveFile=$dir/$profile.jsa" "-Xshare:on")
+            fi
+            # Mesma JVM (toolchain do Gradle) que gerou os arquivos CDS, não o java do PATH
+            local java_bin=$(cat "$dir/java-launcher")
+
+            for run in $(seq 1 "$runs"); do
+                local result
+                if result=$(measure_startup "$java_bin" "$dir/app" "$profile" "$endpoint" "${jvm_args[@]}"); then
+                    echo "$profile,$variant,$run,$result" >> "$csv"
+                    echo -e "${SILVER}   $profile/$variant #$run: 1ª req, started, RSS = $result${NC}"
+                else
+                    echo -e "${RED}❌ Falha no startup: $profile/$variant #$run (log em /tmp/startup-$profile.log)${NC}"
+                fi
+            done
+        done
+    done
+
+    echo ""
+    echo -e "${CYAN}📊 Startup (mediana de $runs execuções):${NC}"
+    {
+        printf "%-22s %-9s %14s %14s %10s\n" "Profile" "Variante" "1ª req (ms)" "Started (ms)" "RSS (MB)"
+        for profile in "${profiles[@]}"; do
+            for variant in "${variants[@]}"; do
+                local rss=$(startup_median "$csv" "$profile" "$variant" 6)
+                printf "%-22s %-9s %14s %14s %10s\n" "$profile" "$variant" \
+                    "$(startup_median "$csv" "$profile" "$variant" 4)" \
+                    "$(startup_median "$csv" "$profile" "$variant" 5)" \
+                    "${rss:+$((rss / 1024))}"
+            done
+        done
+    } | tee "$output_dir/summary.txt"
+    echo ""
+    echo -e "${AMBER}📄 Resultados em: $output_dir${NC}"
+}
+
 # Função principal
 main() {
     case "${1:-simple}" in
@@ -815,10 +1098,22 @@ main() {
         "simple"|"")
             run_simple_benchmark
             ;;
+        "hdr")
+            run_hdr_benchmark
+            ;;
+        "mixed")
+            run_mixed_benchmark
+            ;;
+        "startup")
+            run_startup_benchmark
+            ;;
         *)
-            echo "Uso: $0 [quick|simple]"
+            echo "Uso: $0 [quick|simple|hdr|mixed|startup]"
             echo "  quick  - Teste rápido de funcionalidade"
             echo "  simple - Benchmark dos 4 cenários principais (padrão)"
+            echo "  hdr    - Taxa fixa com percentis HdrHistogram (LOAD_RATE, LOAD_DURATION, LOAD_WARMUP)"
+            echo "  mixed  - Carga mista I/O + CPU por estratégia de enriquecimento e número de cores (MIXED_COUNT, MIXED_CORES + variáveis do hdr)"
+            echo "  startup - Tempo até a 1ª requisição e RSS com/sem AppCDS e Spring AOT (STARTUP_RUNS, STARTUP_PROFILES)"
             ;;
     esac
 }
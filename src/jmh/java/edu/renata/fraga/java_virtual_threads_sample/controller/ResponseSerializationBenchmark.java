@@ -0,0 +1,88 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Custo de serializar com Jackson os corpos Map.of(... "persons" ...) montados
+ * pelos controllers, sem HTTP nem latência simulada, comparado ao caminho
+ * pré-serializado do PersonPayloadCache
+ */
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int count;
+
+    private ObjectMapper objectMapper;
+    private PersonPayloadCache personPayloadCache;
+    private List<Person> persons;
+
+    @Setup
+    public void setUp() {
+        // Mesmos módulos (ex: JavaTimeModule) registrados pelo Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        persons = IntStream.range(0, count)
+                .mapToObj(index -> Person.create(
+                        index, "João Silva", "joao.silva@example.com", 20 + (index % 50), "São Paulo"))
+                .toList();
+        personPayloadCache = new PersonPayloadCache(objectMapper, count);
+    }
+
+    @Benchmark
+    public byte[] serializeBlockingResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "approach", "mvc-blocking",
+                "persons", persons,
+                "count", persons.size(),
+                "executionTimeMs", 0L,
+                "threadInfo", "Thread: benchmark, Virtual: false, ThreadId: 1",
+                "timestamp", LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public byte[] serializeConcurrentResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "approach", "mvc-concurrent",
+                "persons", persons,
+                "totalCount", persons.size(),
+                "batches", 5,
+                "countPerBatch", count / 5,
+                "executionTimeMs", 0L,
+                "initialThreadInfo", "Thread: benchmark, Virtual: false, ThreadId: 1",
+                "finalThreadInfo", "Thread: benchmark, Virtual: false, ThreadId: 1",
+                "timestamp", LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public byte[] serializePersonList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(persons);
+    }
+
+    /**
+     * Fatias pré-serializadas copiadas para um único buffer - limite superior
+     * do custo do caminho pré-serializado (no MVC as fatias vão direto ao
+     * OutputStream)
+     */
+    @Benchmark
+    public byte[] assemblePreserializedResponse() throws IOException {
+        List<byte[]> slices = personPayloadCache.slices("mvc-preserialized", 0L, persons);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) PersonPayloadCache.length(slices));
+        PersonPayloadCache.writeTo(slices, outputStream);
+        return outputStream.toByteArray();
+    }
+}
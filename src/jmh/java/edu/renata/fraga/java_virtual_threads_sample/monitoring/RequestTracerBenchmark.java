@@ -0,0 +1,77 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import reactor.core.publisher.Flux;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Overhead por elemento do hook de tracing do /webflux/persons/stream:
+ * <ul>
+ * <li>println - o antigo System.out.println + String.format (PrintStream
+ * sincronizado sobre um OutputStream nulo, para não inundar a saída do JMH)</li>
+ * <li>off - RequestTracer desligado</li>
+ * <li>sampled - 1 a cada 100 elementos no ring buffer</li>
+ * <li>all - todos os elementos no ring buffer</li>
+ * </ul>
+ * O caso com 4 threads mostra a contenção do lock do PrintStream versus o
+ * índice atômico do ring buffer.
+ */
+@State(Scope.Benchmark)
+public class RequestTracerBenchmark {
+
+    @Param({"println", "off", "sampled", "all"})
+    public String mode;
+
+    @Param({"1000"})
+    public int count;
+
+    private List<Person> persons;
+    private PrintStream console;
+    private RequestTracer tracer;
+    private Consumer<Person> hook;
+
+    @Setup
+    public void setUp() {
+        persons = IntStream.range(0, count)
+                .mapToObj(index -> Person.create(index, "João Silva", "joao.silva@example.com", 30, "São Paulo"))
+                .toList();
+        console = new PrintStream(OutputStream.nullOutputStream(), true);
+        tracer = new RequestTracer(!mode.equals("off"), mode.equals("all") ? 1 : 100, 4096, false, 100);
+        hook = switch (mode) {
+            case "println" -> person -> {
+                Thread thread = Thread.currentThread();
+                console.println("Emitting person: " + person.name() + " on " + String.format(
+                        "Thread: %s, Virtual: %s, ThreadId: %s", thread.getName(), thread.isVirtual(), thread.threadId()));
+            };
+            default -> person -> tracer.trace("webflux-stream", person.id());
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracer.shutdown();
+    }
+
+    @Benchmark
+    public Person stream() {
+        return Flux.fromIterable(persons).doOnNext(hook).blockLast();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Person streamContended() {
+        return Flux.fromIterable(persons).doOnNext(hook).blockLast();
+    }
+}
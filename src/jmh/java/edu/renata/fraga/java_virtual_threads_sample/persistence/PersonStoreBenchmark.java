@@ -0,0 +1,75 @@
+package edu.renata.fraga.java_virtual_threads_sample.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Custo de escrever uma faixa de pessoas como JSON direto do PersonStore
+ * mapeado em memória, comparado a gerar os Person e serializar com Jackson.
+ * Com -prof gc a diferença aparece em bytes alocados por operação.
+ */
+@State(Scope.Benchmark)
+public class PersonStoreBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    private Path directory;
+    private PersonStore store;
+    private ObjectMapper objectMapper;
+    private long start;
+
+    private static Person person(int index) {
+        return Person.create(index, "João Silva", "joao.silva@example.com", 20 + (index % 50), "São Paulo");
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("person-store-benchmark");
+        store = new PersonStore(true, directory.resolve("persons.bin").toString(), RECORDS);
+        store.open(PersonStoreBenchmark::person);
+        objectMapper = new ObjectMapper();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(directory.resolve("persons.bin"));
+        Files.deleteIfExists(directory);
+    }
+
+    private long nextStart() {
+        // Faixas diferentes a cada operação percorrem o arquivo inteiro
+        start = (start + count) % (RECORDS - count);
+        return start;
+    }
+
+    @Benchmark
+    public void mappedStore() throws IOException {
+        store.writeJsonArray(nextStart(), count, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void generatedWithJackson() throws IOException {
+        int from = (int) nextStart();
+        List<Person> persons = IntStream.range(from, from + count)
+                .mapToObj(PersonStoreBenchmark::person)
+                .toList();
+        objectMapper.writeValue(OutputStream.nullOutputStream(), persons);
+    }
+}
@@ -0,0 +1,59 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Etapa de enriquecimento CPU-bound isolada do I/O: quanto cada estratégia
+ * escala com os cores disponíveis para o mesmo lote de pessoas
+ */
+@State(Scope.Benchmark)
+public class PersonEnrichmentBenchmark {
+
+    @Param({"inline", "fork-join", "reactor-parallel"})
+    public String strategy;
+
+    @Param({"100", "1000"})
+    public int count;
+
+    @Param({"100"})
+    public int hashRounds;
+
+    private PersonEnricher enricher;
+    private PersonEnricher.Strategy parsedStrategy;
+    private List<Person> persons;
+
+    @Setup
+    public void setUp() {
+        enricher = new PersonEnricher(strategy, hashRounds, 0);
+        parsedStrategy = PersonEnricher.Strategy.parse(strategy);
+        persons = IntStream.range(0, count)
+                .mapToObj(index -> Person.create(
+                        index, "João Silva", "joao.silva@example.com", 20 + (index % 50), "São Paulo"))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        enricher.shutdown();
+    }
+
+    @Benchmark
+    public EnrichedPerson enrichOne() {
+        return enricher.enrich(persons.get(0));
+    }
+
+    @Benchmark
+    public List<EnrichedPerson> enrichAll() {
+        return enricher.enrichAll(persons, parsedStrategy);
+    }
+}
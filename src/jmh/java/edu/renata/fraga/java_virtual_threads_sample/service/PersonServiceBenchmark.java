@@ -0,0 +1,168 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.downstream.DownstreamPersonClient;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonDatabase;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Microbenchmarks do PersonService isolados de HTTP e JSON. Com latencyMs=0
+ * mede apenas o custo de CPU/alocação de cada variante; com latência > 0 mede
+ * o overhead de coordenação (futures, fan-out, schedulers) sobre a espera.
+ */
+@State(Scope.Benchmark)
+public class PersonServiceBenchmark {
+
+    @Param({"0", "1"})
+    public long latencyMs;
+
+    @Param({"10"})
+    public int count;
+
+    @Param({"false", "true"})
+    public boolean batched;
+
+    private ExecutorService virtualThreads;
+    private PersonBatchLoader batchLoader;
+    private PersonService personService;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        PersonBackend backend = new FixedLatencyBackend(BackendLatencies.ofMillis(latencyMs, latencyMs, latencyMs));
+        batchLoader = new PersonBatchLoader(backend, batched, 100, 1, 0);
+        personService = new PersonService(
+                backend,
+                new OffloadExecutor("virtual", virtualThreads),
+                Schedulers.fromExecutor(virtualThreads),
+                new StructuredFanOut(100, 2_000, 5_000),
+                new PersonCache(10_000, 60),
+                batchLoader,
+                new PersonEnricher("inline", 100, 2),
+                new PersonDatabase(backend, null, null, false, 12_000),
+                new DownstreamPersonClient(backend, new ObjectMapper(), false, "", 0, "http1", "rest-client", 100, 100, 5_000, 10_000),
+                new PersonStore(false, "", 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchLoader.shutdown();
+        virtualThreads.close();
+    }
+
+    @Benchmark
+    public Person createPerson() {
+        return personService.createPerson(index++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public String generateEmail() {
+        return personService.generateEmail(index++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsBlocking() {
+        return personService.getPersonsBlocking(count);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsBlockingQuick() {
+        return personService.getPersonsBlockingQuick(count);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsBlockingIntensive() {
+        return personService.getPersonsBlockingIntensive(count);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsAsync() {
+        return personService.getPersonsAsync(count).join();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsConcurrent() {
+        return personService.getPersonsConcurrent(2, count / 2).join();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsStructured() {
+        return personService.getPersonsStructured(count);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsCached() {
+        return personService.getPersonsCached(count);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsCachedReactive() {
+        return personService.getPersonsCachedReactive(count, 32).collectList().block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactive() {
+        return personService.getPersonsReactive(count).collectList().block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveConcurrent() {
+        return personService.getPersonsReactiveConcurrent(count, 32).collectList().block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveWithVirtualThreadScheduler() {
+        return personService.getPersonsReactiveWithScheduler(count, true).collectList().block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveWithBoundedElastic() {
+        return personService.getPersonsReactiveWithScheduler(count, false).collectList().block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveBlocking() {
+        return personService.getPersonsReactiveBlocking(count).collectList().block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveList() {
+        return personService.getPersonsReactiveList(count).block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveListBatches() {
+        return personService.getPersonsReactiveList(2, count / 2).block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveListIntensive() {
+        return personService.getPersonsReactiveListIntensive(count).block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveListWithVirtualThreadScheduler() {
+        return personService.getPersonsReactiveListWithScheduler(count, true).block();
+    }
+
+    @Benchmark
+    public List<Person> getPersonsReactiveListWithBoundedElastic() {
+        return personService.getPersonsReactiveListWithScheduler(count, false).block();
+    }
+}
@@ -0,0 +1,83 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Custo de codificação e tamanho no fio do mesmo corpo de resposta em cada
+ * formato negociável (JSON, CBOR, Smile, Protobuf, JSON colunar). O tamanho
+ * sai como contador auxiliar "encodedBytes" (bytes por operação = encodedBytes
+ * / ops no relatório do JMH).
+ */
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int count;
+
+    @Param({"json", "cbor", "smile", "protobuf", "columnar"})
+    public String format;
+
+    private ObjectWriter writer;
+    private PersonsResponse body;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        List<Person> persons = IntStream.range(0, count)
+                .mapToObj(index -> Person.create(
+                        index, "João Silva", "joao.silva@example.com", 20 + (index % 50), "São Paulo"))
+                .toList();
+        body = new PersonsResponse();
+        body.put("approach", "mvc-blocking");
+        body.put("persons", persons);
+        body.put("count", persons.size());
+        body.put("executionTimeMs", 1234L);
+
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        writer = switch (format) {
+            case "json", "protobuf" -> json.writer();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build().writer();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build().writer();
+            case "columnar" -> json.copy()
+                    .registerModule(new SimpleModule("columnar-persons")
+                            .addSerializer(new ColumnarPersonListSerializer()))
+                    .writer();
+            default -> throw new IllegalArgumentException("Formato desconhecido: " + format);
+        };
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize size) throws IOException {
+        byte[] bytes = "protobuf".equals(format)
+                ? PersonProtobufWriter.encode(body)
+                : writer.writeValueAsBytes(body);
+        size.encodedBytes += bytes.length;
+        return bytes;
+    }
+}
@@ -0,0 +1,237 @@
+package edu.renata.fraga.java_virtual_threads_sample.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator in-process com taxa de chegada fixa (modelo aberto): as
+ * requisições são disparadas em virtual threads no instante planejado,
+ * independente das respostas anteriores, e a latência é medida a partir desse
+ * instante (correção de coordinated omission). Latências registradas em
+ * HdrHistogram.
+ *
+ * <pre>
+ * run --url URL --rate RPS --duration 30s [--warmup 5s] [--accept MEDIA_TYPE] [--label NOME] [--output arquivo.json]
+ * compare resultado1.json resultado2.json ...
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        switch (args[0]) {
+            case "run" -> run(parseOptions(args));
+            case "compare" -> compare(List.of(args).subList(1, args.length));
+            default -> usage();
+        }
+    }
+
+    private static void run(Map<String, String> options) throws IOException {
+        String url = require(options, "url");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "30s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "5s"));
+        Duration timeout = parseDuration(options.getOrDefault("timeout", "30s"));
+        String accept = options.getOrDefault("accept", "application/json");
+        String label = options.getOrDefault("label", url);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Accept", accept)
+                .GET()
+                .build();
+
+        Histogram latency = new ConcurrentHistogram(3);
+        Histogram serviceTime = new ConcurrentHistogram(3);
+        LongAdder successes = new LongAdder();
+        LongAdder httpErrors = new LongAdder();
+        LongAdder failures = new LongAdder();
+        LongAdder responseBytes = new LongAdder();
+
+        System.out.printf("▶ %s: %.1f req/s por %ds (warmup %ds) em %s [%s]%n",
+                label, rate, duration.toSeconds(), warmup.toSeconds(), url, accept);
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+
+        // Fechados em ordem inversa: primeiro aguarda as virtual threads, depois o client
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(timeout).build();
+                ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (long i = 0; ; i++) {
+                long intendedStart = startNanos + i * intervalNanos;
+                if (intendedStart >= endNanos) {
+                    break;
+                }
+                waitUntil(intendedStart);
+                boolean measured = intendedStart >= measureFromNanos;
+
+                virtualThreads.execute(() -> {
+                    long actualStart = System.nanoTime();
+                    try {
+                        // Corpo lido como bytes para contabilizar o tamanho no fio de cada formato
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (!measured) {
+                            return;
+                        }
+                        long now = System.nanoTime();
+                        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - intendedStart));
+                        serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(now - actualStart));
+                        if (response.statusCode() / 100 == 2) {
+                            successes.increment();
+                            responseBytes.add(response.body().length);
+                        } else {
+                            httpErrors.increment();
+                        }
+                    } catch (IOException e) {
+                        // Timeouts e conexões recusadas entram nos percentis: descartá-los
+                        // esconderia justamente as requisições mais lentas
+                        if (measured) {
+                            long now = System.nanoTime();
+                            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - intendedStart));
+                            serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(now - actualStart));
+                            failures.increment();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        }
+
+        long measuredMs = duration.toMillis();
+        long requests = successes.sum() + httpErrors.sum() + failures.sum();
+        LoadTestResult result = new LoadTestResult(
+                label,
+                url,
+                accept,
+                rate,
+                requests * 1_000.0 / measuredMs,
+                measuredMs,
+                requests,
+                successes.sum(),
+                httpErrors.sum(),
+                failures.sum(),
+                successes.sum() == 0 ? 0 : responseBytes.sum() / successes.sum(),
+                LoadTestResult.Latency.from(latency),
+                LoadTestResult.Latency.from(serviceTime));
+
+        printTable(List.of(result));
+
+        String output = options.get("output");
+        if (output != null) {
+            Path path = Path.of(output);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            OBJECT_MAPPER.writeValue(path.toFile(), result);
+            System.out.println("📄 Resultado salvo em " + path);
+        }
+    }
+
+    private static void compare(List<String> files) throws IOException {
+        List<LoadTestResult> results = new ArrayList<>();
+        for (String file : files) {
+            results.add(OBJECT_MAPPER.readValue(Path.of(file).toFile(), LoadTestResult.class));
+        }
+        printTable(results);
+    }
+
+    private static void printTable(List<LoadTestResult> results) {
+        String header = String.format("%-24s %9s %9s %9s %9s %9s %9s %9s %8s %10s",
+                "label", "alvo rps", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "erros", "bytes/resp");
+        System.out.println(header);
+        System.out.println("-".repeat(header.length()));
+        for (LoadTestResult result : results) {
+            LoadTestResult.Latency latency = result.latency();
+            System.out.printf("%-24s %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %8d %10d%n",
+                    result.label(),
+                    result.targetRps(),
+                    result.achievedRps(),
+                    latency.p50(),
+                    latency.p90(),
+                    latency.p99(),
+                    latency.p999(),
+                    latency.max(),
+                    result.httpErrors() + result.failures(),
+                    result.averageResponseBytes());
+        }
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Opção inválida: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static String require(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Opção obrigatória ausente: --" + name);
+        }
+        return value;
+    }
+
+    /**
+     * Aceita "500ms", "30s", "2m" ou um número em segundos
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Uso:
+                  run --url URL [--rate 50] [--duration 30s] [--warmup 5s] [--timeout 30s] [--accept application/json] [--label NOME] [--output arquivo.json]
+                  compare resultado1.json resultado2.json ...""");
+    }
+}
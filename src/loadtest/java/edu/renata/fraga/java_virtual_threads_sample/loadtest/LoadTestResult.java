@@ -0,0 +1,61 @@
+package edu.renata.fraga.java_virtual_threads_sample.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resultado de uma execução do load generator, serializado em JSON.
+ * averageResponseBytes é o tamanho médio do corpo das respostas 2xx no
+ * formato pedido em "accept".
+ */
+public record LoadTestResult(
+        String label,
+        String url,
+        String accept,
+        double targetRps,
+        double achievedRps,
+        long durationMs,
+        long requests,
+        long successes,
+        long httpErrors,
+        long failures,
+        long averageResponseBytes,
+        Latency latency,
+        Latency serviceTime) {
+
+    /**
+     * Percentis em milissegundos. "latency" é medida a partir do instante em que
+     * a requisição deveria ter sido enviada (corrige coordinated omission);
+     * "serviceTime" a partir do envio real.
+     */
+    public record Latency(
+            double mean,
+            double p50,
+            double p90,
+            double p99,
+            double p999,
+            double max,
+            Map<String, Double> distribution) {
+
+        static Latency from(Histogram histogramMicros) {
+            Map<String, Double> distribution = new LinkedHashMap<>();
+            for (double percentile : new double[] {25, 50, 75, 90, 95, 99, 99.9, 99.99, 100}) {
+                distribution.put("p" + percentile, millis(histogramMicros.getValueAtPercentile(percentile)));
+            }
+            return new Latency(
+                    histogramMicros.getMean() / 1_000.0,
+                    millis(histogramMicros.getValueAtPercentile(50)),
+                    millis(histogramMicros.getValueAtPercentile(90)),
+                    millis(histogramMicros.getValueAtPercentile(99)),
+                    millis(histogramMicros.getValueAtPercentile(99.9)),
+                    millis(histogramMicros.getMaxValue()),
+                    distribution);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import java.time.Duration;
+
+/**
+ * Latências base de cada tipo de chamada ao backend
+ */
+public record BackendLatencies(
+        Duration quick,
+        Duration intensive,
+        Duration reactive) {
+
+    public static BackendLatencies ofMillis(long quickMs, long intensiveMs, long reactiveMs) {
+        return new BackendLatencies(
+                Duration.ofMillis(quickMs),
+                Duration.ofMillis(intensiveMs),
+                Duration.ofMillis(reactiveMs));
+    }
+
+    /**
+     * Sem latência - útil para medir apenas o custo de CPU (ex: JMH)
+     */
+    public static BackendLatencies zero() {
+        return new BackendLatencies(Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    }
+
+    public Duration of(PersonBackend.Call call) {
+        return switch (call) {
+            case QUICK -> quick;
+            case INTENSIVE -> intensive;
+            case REACTIVE -> reactive;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+/**
+ * Falha injetada pelo backend simulado, ou erro real do banco de dados no
+ * modo de persistência
+ */
+public class BackendUnavailableException extends RuntimeException {
+
+    public BackendUnavailableException(PersonBackend.Call call) {
+        super("Falha simulada no backend (" + call + ")");
+    }
+
+    public BackendUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
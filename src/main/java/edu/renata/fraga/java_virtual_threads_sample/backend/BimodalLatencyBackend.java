@@ -0,0 +1,31 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latência bimodal "slow-tail": a maioria das chamadas usa a latência base e
+ * uma fração slowProbability fica slowMultiplier vezes mais lenta
+ * (ex: cache miss, lock no banco, GC no servidor remoto)
+ */
+public class BimodalLatencyBackend extends LatencyDistributionBackend {
+
+    private final double slowProbability;
+    private final double slowMultiplier;
+
+    public BimodalLatencyBackend(BackendLatencies latencies, double slowProbability, double slowMultiplier) {
+        super(latencies);
+        if (slowProbability < 0 || slowProbability > 1) {
+            throw new IllegalArgumentException("slowProbability deve estar entre 0 e 1: " + slowProbability);
+        }
+        this.slowProbability = slowProbability;
+        this.slowMultiplier = slowMultiplier;
+    }
+
+    @Override
+    protected Duration sample(Duration base) {
+        return ThreadLocalRandom.current().nextDouble() < slowProbability
+                ? scale(base, slowMultiplier)
+                : base;
+    }
+}
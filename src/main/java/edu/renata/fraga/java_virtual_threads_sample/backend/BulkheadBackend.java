@@ -0,0 +1,85 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator que limita as chamadas blocking simultâneas ao backend com um
+ * Semaphore. Com Virtual Threads não há pool de threads limitando o acesso ao
+ * recurso remoto; quem não consegue uma vaga dentro de maxWait falha rápido
+ * com BulkheadFullException (503) em vez de enfileirar indefinidamente.
+ * Chamadas reativas não ocupam thread e passam direto.
+ */
+public class BulkheadBackend implements PersonBackend {
+
+    private final PersonBackend delegate;
+    private final Semaphore permits;
+    private final Duration maxWait;
+
+    public BulkheadBackend(PersonBackend delegate, int maxConcurrentCalls, Duration maxWait) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("maxConcurrentCalls deve ser positivo: " + maxConcurrentCalls);
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public Duration sampleLatency(Call call) {
+        return delegate.sampleLatency(call);
+    }
+
+    @Override
+    public Duration sampleBatchLatency(Call call, int size, Duration perItemCost) {
+        return delegate.sampleBatchLatency(call, size, perItemCost);
+    }
+
+    @Override
+    public void fetch(Call call) {
+        acquire(call);
+        try {
+            delegate.fetch(call);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void fetchBatch(Call call, int size, Duration perItemCost) {
+        acquire(call);
+        try {
+            delegate.fetchBatch(call, size, perItemCost);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public Mono<Void> fetchReactive(Call call) {
+        return delegate.fetchReactive(call);
+    }
+
+    @Override
+    public Mono<Void> fetchBatchReactive(Call call, int size, Duration perItemCost) {
+        return delegate.fetchBatchReactive(call, size, perItemCost);
+    }
+
+    private void acquire(Call call) {
+        try {
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new BulkheadFullException(call);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(call);
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,16 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+/**
+ * Todas as vagas do bulkhead do backend ocupadas além do tempo de espera, ou
+ * pool de conexões do banco esgotado no modo de persistência
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(PersonBackend.Call call) {
+        super("Bulkhead do backend cheio (" + call + ")");
+    }
+
+    public BulkheadFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
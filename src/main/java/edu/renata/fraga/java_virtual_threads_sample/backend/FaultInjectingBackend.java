@@ -0,0 +1,65 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decorator que injeta falhas com a taxa configurada. A falha acontece depois
+ * da latência, como um timeout ou erro real do servidor remoto.
+ */
+public class FaultInjectingBackend implements PersonBackend {
+
+    private final PersonBackend delegate;
+    private final double errorRate;
+
+    public FaultInjectingBackend(PersonBackend delegate, double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate deve estar entre 0 e 1: " + errorRate);
+        }
+        this.delegate = delegate;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public Duration sampleLatency(Call call) {
+        return delegate.sampleLatency(call);
+    }
+
+    @Override
+    public void fetch(Call call) {
+        delegate.fetch(call);
+        if (shouldFail()) {
+            throw new BackendUnavailableException(call);
+        }
+    }
+
+    @Override
+    public Mono<Void> fetchReactive(Call call) {
+        return delegate.fetchReactive(call)
+                .then(Mono.defer(() -> shouldFail()
+                        ? Mono.error(new BackendUnavailableException(call))
+                        : Mono.empty()));
+    }
+
+    @Override
+    public void fetchBatch(Call call, int size, Duration perItemCost) {
+        delegate.fetchBatch(call, size, perItemCost);
+        if (shouldFail()) {
+            throw new BackendUnavailableException(call);
+        }
+    }
+
+    @Override
+    public Mono<Void> fetchBatchReactive(Call call, int size, Duration perItemCost) {
+        return delegate.fetchBatchReactive(call, size, perItemCost)
+                .then(Mono.defer(() -> shouldFail()
+                        ? Mono.error(new BackendUnavailableException(call))
+                        : Mono.empty()));
+    }
+
+    private boolean shouldFail() {
+        return ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+}
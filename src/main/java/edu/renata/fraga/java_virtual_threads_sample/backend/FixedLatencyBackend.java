@@ -0,0 +1,18 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import java.time.Duration;
+
+/**
+ * Latência constante - comportamento original do projeto (100ms / 500ms / 50ms)
+ */
+public class FixedLatencyBackend extends LatencyDistributionBackend {
+
+    public FixedLatencyBackend(BackendLatencies latencies) {
+        super(latencies);
+    }
+
+    @Override
+    protected Duration sample(Duration base) {
+        return base;
+    }
+}
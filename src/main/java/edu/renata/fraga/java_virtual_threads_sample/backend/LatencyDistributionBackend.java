@@ -0,0 +1,27 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import java.time.Duration;
+
+/**
+ * Base das implementações: aplica a distribuição sobre a latência base da chamada
+ */
+public abstract class LatencyDistributionBackend implements PersonBackend {
+
+    private final BackendLatencies latencies;
+
+    protected LatencyDistributionBackend(BackendLatencies latencies) {
+        this.latencies = latencies;
+    }
+
+    @Override
+    public Duration sampleLatency(Call call) {
+        Duration base = latencies.of(call);
+        return base.isZero() ? Duration.ZERO : sample(base);
+    }
+
+    protected abstract Duration sample(Duration base);
+
+    protected static Duration scale(Duration base, double factor) {
+        return Duration.ofNanos(Math.max(0, Math.round(base.toNanos() * factor)));
+    }
+}
@@ -0,0 +1,67 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongConsumer;
+
+/**
+ * Decorator que mede cada chamada bem-sucedida ao backend (espera no bulkhead
+ * incluída) e entrega a duração em nanos ao listener. É o sinal de latência do
+ * AdaptiveConcurrencyLimiter: ao contrário do tempo da requisição inteira, não
+ * cresce com o count nem com o formato do fan-out. Em lote, o custo por chave
+ * é descontado pelo mesmo motivo.
+ */
+public class LatencyRecordingBackend implements PersonBackend {
+
+    private final PersonBackend delegate;
+    private final LongConsumer listener;
+
+    public LatencyRecordingBackend(PersonBackend delegate, LongConsumer listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public Duration sampleLatency(Call call) {
+        return delegate.sampleLatency(call);
+    }
+
+    @Override
+    public Duration sampleBatchLatency(Call call, int size, Duration perItemCost) {
+        return delegate.sampleBatchLatency(call, size, perItemCost);
+    }
+
+    @Override
+    public void fetch(Call call) {
+        long startTime = System.nanoTime();
+        delegate.fetch(call);
+        listener.accept(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void fetchBatch(Call call, int size, Duration perItemCost) {
+        long startTime = System.nanoTime();
+        delegate.fetchBatch(call, size, perItemCost);
+        listener.accept(System.nanoTime() - startTime - perItemCost.multipliedBy(size).toNanos());
+    }
+
+    @Override
+    public Mono<Void> fetchReactive(Call call) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return delegate.fetchReactive(call)
+                    .doOnSuccess(ignored -> listener.accept(System.nanoTime() - startTime));
+        });
+    }
+
+    @Override
+    public Mono<Void> fetchBatchReactive(Call call, int size, Duration perItemCost) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return delegate.fetchBatchReactive(call, size, perItemCost)
+                    .doOnSuccess(ignored -> listener.accept(
+                            System.nanoTime() - startTime - perItemCost.multipliedBy(size).toNanos()));
+        });
+    }
+}
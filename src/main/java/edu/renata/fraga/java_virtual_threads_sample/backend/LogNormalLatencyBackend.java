@@ -0,0 +1,26 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latência log-normal com mediana igual à latência base - cauda longa à
+ * direita, parecida com a de um banco de dados real
+ */
+public class LogNormalLatencyBackend extends LatencyDistributionBackend {
+
+    private final double sigma;
+
+    public LogNormalLatencyBackend(BackendLatencies latencies, double sigma) {
+        super(latencies);
+        if (sigma < 0) {
+            throw new IllegalArgumentException("sigma não pode ser negativo: " + sigma);
+        }
+        this.sigma = sigma;
+    }
+
+    @Override
+    protected Duration sample(Duration base) {
+        return scale(base, Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
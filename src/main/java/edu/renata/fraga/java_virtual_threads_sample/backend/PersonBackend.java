@@ -0,0 +1,83 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * SPI do backend simulado (banco de dados / API externa) consultado pelo
+ * PersonService. Cada implementação define a distribuição de latência; a
+ * espera pode ser blocking (Thread.sleep) ou non-blocking (Mono.delay).
+ */
+public interface PersonBackend {
+
+    /**
+     * Tipos de chamada ao backend, cada um com sua latência base
+     */
+    enum Call {
+        QUICK,
+        INTENSIVE,
+        REACTIVE
+    }
+
+    /**
+     * Sorteia a latência da próxima chamada
+     */
+    Duration sampleLatency(Call call);
+
+    /**
+     * Chamada blocking - bloqueia a thread atual durante a latência sorteada
+     */
+    default void fetch(Call call) {
+        sleep(sampleLatency(call));
+    }
+
+    /**
+     * Chamada non-blocking - completa após a latência sorteada sem ocupar thread
+     */
+    default Mono<Void> fetchReactive(Call call) {
+        return Mono.defer(() -> {
+            Duration latency = sampleLatency(call);
+            return latency.isZero() ? Mono.empty() : Mono.delay(latency).then();
+        });
+    }
+
+    /**
+     * Latência de uma chamada em lote: uma ida ao backend (latência base
+     * sorteada) mais o custo de cada chave buscada
+     */
+    default Duration sampleBatchLatency(Call call, int size, Duration perItemCost) {
+        return sampleLatency(call).plus(perItemCost.multipliedBy(size));
+    }
+
+    /**
+     * Chamada blocking em lote (ex: SELECT ... WHERE id IN (...))
+     */
+    default void fetchBatch(Call call, int size, Duration perItemCost) {
+        sleep(sampleBatchLatency(call, size, perItemCost));
+    }
+
+    /**
+     * Chamada non-blocking em lote
+     */
+    default Mono<Void> fetchBatchReactive(Call call, int size, Duration perItemCost) {
+        return Mono.defer(() -> {
+            Duration latency = sampleBatchLatency(call, size, perItemCost);
+            return latency.isZero() ? Mono.empty() : Mono.delay(latency).then();
+        });
+    }
+
+    private static void sleep(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            // Requisição cancelada ou fan-out encerrado: não continua o trabalho
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Chamada ao backend interrompida");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edu.renata.fraga.java_virtual_threads_sample.backend;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latência uniforme em base * [1 - spread, 1 + spread]
+ */
+public class UniformLatencyBackend extends LatencyDistributionBackend {
+
+    private final double spread;
+
+    public UniformLatencyBackend(BackendLatencies latencies, double spread) {
+        super(latencies);
+        if (spread < 0 || spread > 1) {
+            throw new IllegalArgumentException("spread deve estar entre 0 e 1: " + spread);
+        }
+        this.spread = spread;
+    }
+
+    @Override
+    protected Duration sample(Duration base) {
+        if (spread == 0) {
+            return base;
+        }
+        return scale(base, ThreadLocalRandom.current().nextDouble(1 - spread, 1 + spread));
+    }
+}
@@ -0,0 +1,234 @@
+package edu.renata.fraga.java_virtual_threads_sample.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Limite adaptativo de requisições em voo (AIMD): cada requisição concluída
+ * com o backend abaixo do limiar de latência soma 1 ao limite enquanto ele
+ * está sendo usado; com o backend lento, ou numa requisição com erro, o limite
+ * é multiplicado por backoffRatio. Requisições acima do limite são rejeitadas
+ * na hora (503) em vez de se acumularem sobre o backend - com Virtual Threads
+ * não há pool de threads para fazer esse papel.
+ * <p>
+ * O sinal de latência é a média móvel (EWMA) da duração de cada chamada ao
+ * backend, alimentada pelo LatencyRecordingBackend - não o tempo da
+ * requisição inteira, que cresce com o count e com o formato do fan-out
+ * (count=50 sequencial leva segundos com o servidor ocioso) sem que haja
+ * sobrecarga nenhuma.
+ * <p>
+ * O estado é todo atômico: o limiter é consultado por Virtual Threads e por
+ * threads do event loop, onde um lock seria pinning ou bloqueio.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    /**
+     * Peso de cada chamada na média móvel da latência do backend
+     */
+    private static final double LATENCY_WEIGHT = 0.1;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    /**
+     * Limite atual em bits de double (AtomicLong + CAS)
+     */
+    private final AtomicLong limitBits;
+    /**
+     * Média móvel da latência por chamada ao backend, em nanos (bits de double)
+     */
+    private final AtomicLong backendLatencyBits = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${demo.limiter.enabled:false}") boolean enabled,
+            @Value("${demo.limiter.initial-limit:200}") int initialLimit,
+            @Value("${demo.limiter.min-limit:20}") int minLimit,
+            @Value("${demo.limiter.max-limit:2000}") int maxLimit,
+            @Value("${demo.limiter.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${demo.limiter.latency-threshold-ms:1000}") long latencyThresholdMs) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limites inválidos: min=" + minLimit
+                    + ", initial=" + initialLimit + ", max=" + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoff-ratio deve estar entre 0 e 1: " + backoffRatio);
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = Duration.ofMillis(latencyThresholdMs).toNanos();
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    /**
+     * Permissão de uma requisição em voo - só o primeiro sinal é considerado
+     */
+    public interface Permit {
+
+        /**
+         * Requisição concluída: a latência atual do backend ajusta o limite
+         */
+        void onSuccess();
+
+        /**
+         * Requisição falhou por sobrecarga (erro 5xx, timeout do backend)
+         */
+        void onDropped();
+
+        /**
+         * Requisição encerrada sem sinal útil (ex: cliente cancelou)
+         */
+        void onIgnore();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Só os endpoints de pessoas passam pelo limiter - actuator e diagnóstico
+     * precisam responder justamente quando a aplicação está sobrecarregada
+     */
+    public boolean appliesTo(String path) {
+        return enabled && path.startsWith("/api/") && !path.startsWith("/api/diagnostics");
+    }
+
+    /**
+     * Tenta reservar uma vaga; vazio quando o limite atual foi atingido
+     */
+    public Optional<Permit> tryAcquire() {
+        if (inFlight.incrementAndGet() > getLimit()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return Optional.empty();
+        }
+        int inFlightAtStart = inFlight.get();
+        return Optional.of(new Permit() {
+
+            // onError + onComplete podem chegar juntos (AsyncListener): libera uma vez só
+            private final AtomicBoolean released = new AtomicBoolean();
+
+            @Override
+            public void onSuccess() {
+                if (release(released)) {
+                    if (getBackendLatencyNanos() > latencyThresholdNanos) {
+                        decrease();
+                    } else {
+                        increase(inFlightAtStart);
+                    }
+                }
+            }
+
+            @Override
+            public void onDropped() {
+                if (release(released)) {
+                    decrease();
+                }
+            }
+
+            @Override
+            public void onIgnore() {
+                release(released);
+            }
+        });
+    }
+
+    /**
+     * Duração de uma chamada ao backend (LatencyRecordingBackend)
+     */
+    public void recordBackendLatency(long nanos) {
+        update(backendLatencyBits, average -> average == 0 ? nanos : average + LATENCY_WEIGHT * (nanos - average));
+    }
+
+    private boolean release(AtomicBoolean released) {
+        if (!released.compareAndSet(false, true)) {
+            return false;
+        }
+        inFlight.decrementAndGet();
+        return true;
+    }
+
+    private void increase(int inFlightAtStart) {
+        // Só cresce quando o limite está de fato sendo usado - evita inflar
+        // o limite durante tráfego baixo
+        update(limitBits, limit -> inFlightAtStart * 2 >= limit ? Math.min(maxLimit, limit + 1) : limit);
+    }
+
+    private void decrease() {
+        update(limitBits, limit -> Math.max(minLimit, limit * backoffRatio));
+    }
+
+    private static void update(AtomicLong bits, DoubleUnaryOperator update) {
+        long current;
+        long next;
+        do {
+            current = bits.get();
+            next = Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(current)));
+        } while (current != next && !bits.compareAndSet(current, next));
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getBackendLatencyNanos() {
+        return (long) Double.longBitsToDouble(backendLatencyBits.get());
+    }
+
+    /**
+     * Snapshot para os endpoints de diagnóstico
+     */
+    public Map<String, Object> snapshot() {
+        return Map.of(
+                "enabled", enabled,
+                "limit", getLimit(),
+                "inFlight", getInFlight(),
+                "rejected", getRejected(),
+                "minLimit", minLimit,
+                "maxLimit", maxLimit,
+                "backendLatencyMs", Duration.ofNanos(getBackendLatencyNanos()).toMillis(),
+                "latencyThresholdMs", Duration.ofNanos(latencyThresholdNanos).toMillis());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Limite adaptativo atual de requisições em voo")
+                .register(registry);
+        Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Requisições em voo admitidas pelo limiter")
+                .register(registry);
+        FunctionCounter.builder("concurrency.rejected", rejected, LongAdder::sum)
+                .description("Requisições rejeitadas com 503 pelo limiter")
+                .register(registry);
+    }
+}
@@ -0,0 +1,97 @@
+package edu.renata.fraga.java_virtual_threads_sample.concurrency;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Aplica o AdaptiveConcurrencyLimiter no Tomcat (profiles MVC e WebFlux sobre
+ * servlet). Requisições assíncronas (CompletableFuture, StreamingResponseBody)
+ * só liberam a vaga quando o AsyncContext termina.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !limiter.appliesTo(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Optional<AdaptiveConcurrencyLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            reject(response);
+            return;
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = acquired.get();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            // O dispatch assíncrono só acontece depois que esta thread sai do filtro
+            request.getAsyncContext().addListener(new PermitListener(permit));
+        } else {
+            complete(permit, response.getStatus());
+        }
+    }
+
+    private static void complete(AdaptiveConcurrencyLimiter.Permit permit, int status) {
+        if (status >= 500) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Limite de concorrência atingido\"}");
+    }
+
+    private record PermitListener(AdaptiveConcurrencyLimiter.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(permit, ((HttpServletResponse) event.getSuppliedResponse()).getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package edu.renata.fraga.java_virtual_threads_sample.concurrency;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Mesmo limiter para um servidor reativo (Netty). Só é usado quando a
+ * aplicação sobe com web-application-type=reactive; nos profiles sobre
+ * Tomcat o ConcurrencyLimitFilter cobre também os endpoints WebFlux.
+ */
+@Component
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Limite de concorrência atingido\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitWebFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        if (!limiter.appliesTo(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+        Optional<AdaptiveConcurrencyLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            return reject(exchange.getResponse());
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = acquired.get();
+        return chain.filter(exchange)
+                .doOnSuccess(ignored -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is5xxServerError()) {
+                        permit.onDropped();
+                    } else {
+                        permit.onSuccess();
+                    }
+                })
+                .doOnError(error -> permit.onDropped())
+                .doOnCancel(permit::onIgnore);
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+}
@@ -0,0 +1,76 @@
+package edu.renata.fraga.java_virtual_threads_sample.concurrency;
+
+import edu.renata.fraga.java_virtual_threads_sample.service.RequestDeadline;
+import edu.renata.fraga.java_virtual_threads_sample.service.RequestDeadlines;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Cria o deadline da requisição no Tomcat e o associa à thread que executa o
+ * handler. Em requisições assíncronas (CompletableFuture, Mono/Flux) o timeout
+ * do AsyncContext (configureAsyncSupport) e a desconexão do cliente também
+ * cancelam o trabalho pendente.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final RequestDeadlines deadlines;
+
+    public RequestDeadlineFilter(RequestDeadlines deadlines) {
+        this.deadlines = deadlines;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestDeadline deadline = deadlines.start(request.getHeader(deadlines.getHeader()));
+        try (RequestDeadline.Scope ignored = deadline.bind()) {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            deadline.complete();
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            // O dispatch assíncrono só acontece depois que esta thread sai do filtro
+            request.getAsyncContext().addListener(new DeadlineListener(deadline));
+        } else {
+            deadline.complete();
+        }
+    }
+
+    private record DeadlineListener(RequestDeadline deadline) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            deadline.complete();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            deadline.cancel(RequestDeadline.Reason.ASYNC_TIMEOUT);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            deadline.cancel(RequestDeadline.Reason.CLIENT_GONE);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package edu.renata.fraga.java_virtual_threads_sample.concurrency;
+
+import edu.renata.fraga.java_virtual_threads_sample.service.RequestDeadline;
+import edu.renata.fraga.java_virtual_threads_sample.service.RequestDeadlines;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deadline da requisição em um servidor reativo (Netty): vai no contexto
+ * Reactor, onde o PersonService e os handlers em Virtual Threads o encontram.
+ * O cancelamento da assinatura pelo Netty (cliente desconectou) também
+ * cancela o trabalho pendente da requisição.
+ */
+@Component
+public class RequestDeadlineWebFilter implements WebFilter {
+
+    private final RequestDeadlines deadlines;
+
+    public RequestDeadlineWebFilter(RequestDeadlines deadlines) {
+        this.deadlines = deadlines;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        RequestDeadline deadline = deadlines.start(exchange.getRequest().getHeaders().getFirst(deadlines.getHeader()));
+        return chain.filter(exchange)
+                .doFinally(signal -> deadline.complete())
+                .doOnCancel(() -> deadline.cancel(RequestDeadline.Reason.CLIENT_GONE))
+                .contextWrite(context -> context.put(RequestDeadline.class, deadline));
+    }
+}
@@ -0,0 +1,69 @@
+package edu.renata.fraga.java_virtual_threads_sample.config;
+
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BimodalLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BulkheadBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FaultInjectingBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.LatencyRecordingBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.LogNormalLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.UniformLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.concurrency.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Seleção do backend simulado via properties (demo.backend.*), podendo ser
+ * sobrescrita em cada profile para comparar MVC e WebFlux sob o mesmo modelo
+ * de latência
+ */
+@Configuration
+public class BackendConfig {
+
+    @Bean
+    public BackendLatencies backendLatencies(
+            @Value("${demo.backend.quick-latency-ms:100}") long quickMs,
+            @Value("${demo.backend.intensive-latency-ms:500}") long intensiveMs,
+            @Value("${demo.backend.reactive-latency-ms:50}") long reactiveMs) {
+        return BackendLatencies.ofMillis(quickMs, intensiveMs, reactiveMs);
+    }
+
+    @Bean
+    public PersonBackend personBackend(
+            BackendLatencies latencies,
+            AdaptiveConcurrencyLimiter limiter,
+            @Value("${demo.backend.latency:fixed}") String distribution,
+            @Value("${demo.backend.uniform.spread:0.5}") double spread,
+            @Value("${demo.backend.log-normal.sigma:0.5}") double sigma,
+            @Value("${demo.backend.bimodal.slow-probability:0.05}") double slowProbability,
+            @Value("${demo.backend.bimodal.slow-multiplier:10}") double slowMultiplier,
+            @Value("${demo.backend.error-rate:0}") double errorRate,
+            @Value("${demo.bulkhead.enabled:false}") boolean bulkheadEnabled,
+            @Value("${demo.bulkhead.max-concurrent-calls:500}") int bulkheadMaxCalls,
+            @Value("${demo.bulkhead.max-wait-ms:100}") long bulkheadMaxWaitMs) {
+
+        PersonBackend backend = switch (distribution) {
+            case "fixed" -> new FixedLatencyBackend(latencies);
+            case "uniform" -> new UniformLatencyBackend(latencies, spread);
+            case "log-normal" -> new LogNormalLatencyBackend(latencies, sigma);
+            case "bimodal" -> new BimodalLatencyBackend(latencies, slowProbability, slowMultiplier);
+            default -> throw new IllegalArgumentException(
+                    "demo.backend.latency inválido: " + distribution + " (fixed, uniform, log-normal, bimodal)");
+        };
+
+        if (errorRate > 0) {
+            backend = new FaultInjectingBackend(backend, errorRate);
+        }
+        if (bulkheadEnabled) {
+            backend = new BulkheadBackend(backend, bulkheadMaxCalls, Duration.ofMillis(bulkheadMaxWaitMs));
+        }
+        // Por fora do bulkhead: a espera por uma vaga também é latência do backend
+        return limiter.isEnabled()
+                ? new LatencyRecordingBackend(backend, limiter::recordBackendLatency)
+                : backend;
+    }
+}
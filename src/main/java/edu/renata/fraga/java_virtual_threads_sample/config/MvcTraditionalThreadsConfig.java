@@ -1,5 +1,6 @@
 package edu.renata.fraga.java_virtual_threads_sample.config;
 
+import edu.renata.fraga.java_virtual_threads_sample.service.OffloadExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -8,6 +9,10 @@ import org.springframework.lang.NonNull;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuração para MVC com Threads Tradicionais
@@ -23,10 +28,23 @@ public class MvcTraditionalThreadsConfig implements WebMvcConfigurer {
         executor.setMaxPoolSize(16);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("traditional-async-");
+        // Pool cheio devolve o trabalho para a thread do Tomcat em vez de rejeitar
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.initialize();
         return executor;
     }
 
+    @Bean
+    public OffloadExecutor offloadExecutor() {
+        return new OffloadExecutor("traditional", applicationTaskExecutor());
+    }
+
+    @Bean
+    public Scheduler blockingScheduler() {
+        // Trabalho blocking dos pipelines reativos no boundedElastic (threads tradicionais)
+        return Schedulers.boundedElastic();
+    }
+
     @Override
     public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
         configurer.setTaskExecutor(applicationTaskExecutor());
@@ -1,5 +1,7 @@
 package edu.renata.fraga.java_virtual_threads_sample.config;
 
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreads;
+import edu.renata.fraga.java_virtual_threads_sample.service.OffloadExecutor;
 import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,8 +11,8 @@ import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-import java.util.concurrent.Executors;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Configuração para MVC com Virtual Threads
@@ -21,12 +23,23 @@ public class MvcVirtualThreadsConfig implements WebMvcConfigurer {
 
     @Bean
     public TomcatProtocolHandlerCustomizer<?> protocolHandlerVirtualThreadExecutorCustomizer() {
-        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-vt-"));
     }
 
     @Bean("virtualThreadTaskExecutor")
     public AsyncTaskExecutor applicationTaskExecutor() {
-        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("mvc-async-vt-"));
+    }
+
+    @Bean
+    public OffloadExecutor offloadExecutor() {
+        return new OffloadExecutor("virtual", applicationTaskExecutor());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler() {
+        // Trabalho blocking dos pipelines reativos em Virtual Threads
+        return Schedulers.fromExecutorService(VirtualThreads.newThreadPerTaskExecutor("reactor-vt-"), "virtual-threads");
     }
 
     @Override
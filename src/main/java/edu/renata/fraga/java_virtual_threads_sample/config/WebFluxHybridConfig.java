@@ -0,0 +1,37 @@
+package edu.renata.fraga.java_virtual_threads_sample.config;
+
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreads;
+import edu.renata.fraga.java_virtual_threads_sample.service.OffloadExecutor;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuração híbrida: servidor reativo (Netty, event loop para I/O) com os
+ * handlers blocking executados em Virtual Threads. As rotas ficam no
+ * HybridRouter.
+ */
+@Configuration
+@Profile("webflux-hybrid")
+public class WebFluxHybridConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        // Tomcat também está no classpath e teria precedência como servidor reativo
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public OffloadExecutor offloadExecutor() {
+        return new OffloadExecutor("virtual", VirtualThreads.newThreadPerTaskExecutor("offload-vt-"));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler() {
+        // Executa os handlers blocking - o event loop do Netty nunca bloqueia
+        return Schedulers.fromExecutorService(VirtualThreads.newThreadPerTaskExecutor("handler-vt-"), "virtual-threads");
+    }
+}
@@ -1,8 +1,11 @@
 package edu.renata.fraga.java_virtual_threads_sample.config;
 
+import edu.renata.fraga.java_virtual_threads_sample.service.OffloadExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Configuração para WebFlux com Threads Tradicionais (padrão)
@@ -17,4 +20,16 @@ public class WebFluxTraditionalConfig {
         System.setProperty("reactor.schedulers.defaultBoundedElasticOnVirtualThreads", "false");
         return "webflux-traditional-configured";
     }
+
+    @Bean
+    public OffloadExecutor offloadExecutor() {
+        // Trabalho offloaded vai para o boundedElastic de threads tradicionais
+        return new OffloadExecutor("bounded-elastic", task -> Schedulers.boundedElastic().schedule(task));
+    }
+
+    @Bean
+    public Scheduler blockingScheduler() {
+        // Trabalho blocking dos pipelines reativos no boundedElastic (threads tradicionais)
+        return Schedulers.boundedElastic();
+    }
 }
@@ -1,8 +1,12 @@
 package edu.renata.fraga.java_virtual_threads_sample.config;
 
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreads;
+import edu.renata.fraga.java_virtual_threads_sample.service.OffloadExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Configuração para WebFlux com Virtual Threads
@@ -17,4 +21,15 @@ public class WebFluxVirtualThreadsConfig {
         System.setProperty("reactor.schedulers.defaultBoundedElasticOnVirtualThreads", "true");
         return "webflux-virtual-configured";
     }
+
+    @Bean
+    public OffloadExecutor offloadExecutor() {
+        return new OffloadExecutor("virtual", VirtualThreads.newThreadPerTaskExecutor("offload-vt-"));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler() {
+        // Trabalho blocking dos pipelines reativos em Virtual Threads
+        return Schedulers.fromExecutorService(VirtualThreads.newThreadPerTaskExecutor("reactor-vt-"), "virtual-threads");
+    }
 }
@@ -0,0 +1,66 @@
+package edu.renata.fraga.java_virtual_threads_sample.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import edu.renata.fraga.java_virtual_threads_sample.wire.ColumnarPersonListSerializer;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonProtobufEncoder;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonProtobufHttpMessageConverter;
+import edu.renata.fraga.java_virtual_threads_sample.wire.WireFormats;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos de resposta além do JSON. CBOR e Smile vêm dos módulos
+ * jackson-dataformat-* (registrados automaticamente pelo Spring MVC); Protobuf
+ * e JSON colunar são registrados aqui, tanto para o MVC (Tomcat) quanto para
+ * o WebFlux (Netty, profile webflux-hybrid).
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * ObjectMapper do Spring Boot + serialização colunar de List&lt;Person&gt;
+     */
+    private static ObjectMapper columnarObjectMapper(ObjectMapper objectMapper) {
+        return objectMapper.copy()
+                .registerModule(new SimpleModule("columnar-persons")
+                        .addSerializer(new ColumnarPersonListSerializer()));
+    }
+
+    @Bean
+    public WebMvcConfigurer wireFormatMvcConfigurer(ObjectMapper objectMapper) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+                MappingJackson2HttpMessageConverter columnar =
+                        new MappingJackson2HttpMessageConverter(columnarObjectMapper(objectMapper));
+                columnar.setSupportedMediaTypes(List.of(WireFormats.COLUMNAR_JSON));
+                converters.add(columnar);
+                converters.add(new PersonProtobufHttpMessageConverter());
+            }
+        };
+    }
+
+    @Bean
+    public WebFluxConfigurer wireFormatWebFluxConfigurer(ObjectMapper objectMapper) {
+        return new WebFluxConfigurer() {
+            @Override
+            public void configureHttpMessageCodecs(@NonNull ServerCodecConfigurer configurer) {
+                configurer.customCodecs().register(new Jackson2CborEncoder());
+                configurer.customCodecs().register(
+                        new Jackson2JsonEncoder(columnarObjectMapper(objectMapper), WireFormats.COLUMNAR_JSON));
+                configurer.customCodecs().register(new PersonProtobufEncoder());
+            }
+        };
+    }
+}
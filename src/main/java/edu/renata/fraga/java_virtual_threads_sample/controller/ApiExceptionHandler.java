@@ -0,0 +1,83 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendUnavailableException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BulkheadFullException;
+import edu.renata.fraga.java_virtual_threads_sample.service.DeadlineExceededException;
+import edu.renata.fraga.java_virtual_threads_sample.service.InvalidPersonRequestException;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonsResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Respostas de erro comuns ao MainController e ao MvcController (Spring MVC
+ * e WebFlux anotado). Os corpos são PersonsResponse para que um cliente que
+ * pediu application/x-protobuf receba o erro no mesmo formato
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+        /**
+         * count acima do limite do servidor, limit fora da faixa ou cursor inválido
+         */
+        @ExceptionHandler(InvalidPersonRequestException.class)
+        public ResponseEntity<PersonsResponse> handleInvalidPersonRequest(InvalidPersonRequestException e) {
+                return ResponseEntity.badRequest()
+                                .body(new PersonsResponse(Map.of(
+                                                "error", e.getMessage(),
+                                                "timestamp", LocalDateTime.now())));
+        }
+
+        /**
+         * Deadline do fan-out excedido - responde 504 em vez de segurar a conexão
+         */
+        @ExceptionHandler(DeadlineExceededException.class)
+        public ResponseEntity<PersonsResponse> handleDeadlineExceeded(DeadlineExceededException e) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                                .body(new PersonsResponse(Map.of(
+                                                "error", e.getMessage(),
+                                                "deadlineMs", e.getDeadline().toMillis(),
+                                                "timestamp", LocalDateTime.now())));
+        }
+
+        /**
+         * Falha injetada pelo backend simulado (demo.backend.error-rate)
+         */
+        @ExceptionHandler(BackendUnavailableException.class)
+        public ResponseEntity<PersonsResponse> handleBackendUnavailable(BackendUnavailableException e) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                                .body(new PersonsResponse(Map.of(
+                                                "error", e.getMessage(),
+                                                "timestamp", LocalDateTime.now())));
+        }
+
+        /**
+         * Bulkhead do backend cheio - falha rápida para o cliente tentar de novo
+         */
+        @ExceptionHandler(BulkheadFullException.class)
+        public ResponseEntity<PersonsResponse> handleBulkheadFull(BulkheadFullException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body(new PersonsResponse(Map.of(
+                                                "error", e.getMessage(),
+                                                "timestamp", LocalDateTime.now())));
+        }
+
+        /**
+         * Requisição cancelada (timeout async, cliente desconectado) - normalmente
+         * ninguém mais lê esta resposta
+         */
+        @ExceptionHandler(CancellationException.class)
+        public ResponseEntity<PersonsResponse> handleCancellation(CancellationException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(new PersonsResponse(Map.of(
+                                                "error", String.valueOf(e.getMessage()),
+                                                "timestamp", LocalDateTime.now())));
+        }
+}
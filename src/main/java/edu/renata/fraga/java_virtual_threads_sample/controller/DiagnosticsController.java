@@ -0,0 +1,156 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import edu.renata.fraga.java_virtual_threads_sample.concurrency.AdaptiveConcurrencyLimiter;
+import edu.renata.fraga.java_virtual_threads_sample.downstream.DownstreamPersonClient;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.RequestTracer;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreadEventRecorder;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonDatabase;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonBatchLoader;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonCache;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonEnricher;
+import edu.renata.fraga.java_virtual_threads_sample.service.RequestDeadlines;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+        private final VirtualThreadEventRecorder eventRecorder;
+        private final PersonCache personCache;
+        private final PersonBatchLoader batchLoader;
+        private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private final PersonEnricher enricher;
+        private final RequestDeadlines requestDeadlines;
+        private final RequestTracer requestTracer;
+        private final PersonDatabase personDatabase;
+        private final DownstreamPersonClient downstreamClient;
+        private final PersonStore personStore;
+
+        public DiagnosticsController(VirtualThreadEventRecorder eventRecorder, PersonCache personCache,
+                        PersonBatchLoader batchLoader, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                        PersonEnricher enricher, RequestDeadlines requestDeadlines, RequestTracer requestTracer,
+                        PersonDatabase personDatabase, DownstreamPersonClient downstreamClient,
+                        PersonStore personStore) {
+                this.eventRecorder = eventRecorder;
+                this.personCache = personCache;
+                this.batchLoader = batchLoader;
+                this.concurrencyLimiter = concurrencyLimiter;
+                this.enricher = enricher;
+                this.requestDeadlines = requestDeadlines;
+                this.requestTracer = requestTracer;
+                this.personDatabase = personDatabase;
+                this.downstreamClient = downstreamClient;
+                this.personStore = personStore;
+        }
+
+        /**
+         * Resumo dos eventos JFR de Virtual Threads (pinning, submit failed, park)
+         * agregados por endpoint e stack trace
+         */
+        @GetMapping("/virtual-threads")
+        public ResponseEntity<Map<String, Object>> getVirtualThreadEvents(
+                        @RequestParam(defaultValue = "20") int topSites,
+                        @RequestParam(defaultValue = "50") int recent) {
+
+                Map<String, Object> response = new LinkedHashMap<>(eventRecorder.summary(topSites, recent));
+                response.put("timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Limpa os agregados entre rodadas de benchmark
+         */
+        @DeleteMapping("/virtual-threads")
+        public ResponseEntity<Void> resetVirtualThreadEvents() {
+                eventRecorder.reset();
+                return ResponseEntity.noContent().build();
+        }
+
+        /**
+         * Estatísticas do cache de pessoas (hits, misses, evictions)
+         */
+        @GetMapping("/person-cache")
+        public ResponseEntity<Map<String, Object>> getPersonCache() {
+                return ResponseEntity.ok(personCache.snapshot());
+        }
+
+        /**
+         * Esvazia o cache para medir o cenário frio
+         */
+        @DeleteMapping("/person-cache")
+        public ResponseEntity<Void> invalidatePersonCache() {
+                personCache.invalidateAll();
+                return ResponseEntity.noContent().build();
+        }
+
+        /**
+         * Contadores do batch loader: requests / batches = redução de chamadas ao backend
+         */
+        @GetMapping("/batch-loader")
+        public ResponseEntity<Map<String, Object>> getBatchLoader() {
+                return ResponseEntity.ok(batchLoader.snapshot());
+        }
+
+        /**
+         * Limite adaptativo atual, requisições em voo e rejeitadas
+         */
+        @GetMapping("/concurrency-limit")
+        public ResponseEntity<Map<String, Object>> getConcurrencyLimit() {
+                return ResponseEntity.ok(concurrencyLimiter.snapshot());
+        }
+
+        /**
+         * Estratégia padrão, custo e estado do ForkJoinPool do enriquecimento
+         */
+        @GetMapping("/enrichment")
+        public ResponseEntity<Map<String, Object>> getEnrichment() {
+                return ResponseEntity.ok(enricher.snapshot());
+        }
+
+        /**
+         * Requisições canceladas por motivo e trabalho desperdiçado evitado
+         */
+        @GetMapping("/deadlines")
+        public ResponseEntity<Map<String, Object>> getDeadlines() {
+                return ResponseEntity.ok(requestDeadlines.snapshot());
+        }
+
+        /**
+         * Tracing amostrado dos streams reativos: contadores e eventos mais recentes
+         */
+        @GetMapping("/tracing")
+        public ResponseEntity<Map<String, Object>> getTracing(@RequestParam(defaultValue = "50") int recent) {
+                return ResponseEntity.ok(requestTracer.snapshot(recent));
+        }
+
+        /**
+         * Modo de persistência: espera por conexão e estado dos pools JDBC e R2DBC
+         */
+        @GetMapping("/database")
+        public ResponseEntity<Map<String, Object>> getDatabase() {
+                return ResponseEntity.ok(personDatabase.snapshot());
+        }
+
+        /**
+         * Modo downstream HTTP: protocolo, limite de conexões e espera por conexão
+         */
+        @GetMapping("/downstream")
+        public ResponseEntity<Map<String, Object>> getDownstream() {
+                return ResponseEntity.ok(downstreamClient.snapshot());
+        }
+
+        /**
+         * Store mapeado em memória: arquivo, geração e registros servidos
+         */
+        @GetMapping("/store")
+        public ResponseEntity<Map<String, Object>> getStore() {
+                return ResponseEntity.ok(personStore.snapshot());
+        }
+}
@@ -0,0 +1,224 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ApproachMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ThreadMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonEnricher;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonPagination;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonService;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonsResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Rotas funcionais do profile webflux-hybrid: I/O no event loop do Netty e
+ * handlers escritos de forma imperativa, chamando os métodos blocking do
+ * PersonService em Virtual Threads. Os corpos Map/PersonsResponse são
+ * negociados pelo Accept (VirtualThreadHandlers); preserialized e store são
+ * sempre JSON
+ */
+@Configuration
+@Profile("webflux-hybrid")
+public class HybridRouter {
+
+        private final PersonService personService;
+        private final ApproachMetrics approachMetrics;
+        private final ThreadMetrics threadMetrics;
+        private final PersonPayloadCache personPayloadCache;
+        private final PersonPagination personPagination;
+        private final PersonStore personStore;
+
+        public HybridRouter(PersonService personService, ApproachMetrics approachMetrics,
+                        ThreadMetrics threadMetrics, PersonPayloadCache personPayloadCache,
+                        PersonPagination personPagination, PersonStore personStore) {
+                this.personService = personService;
+                this.approachMetrics = approachMetrics;
+                this.threadMetrics = threadMetrics;
+                this.personPayloadCache = personPayloadCache;
+                this.personPagination = personPagination;
+                this.personStore = personStore;
+        }
+
+        @Bean
+        public RouterFunction<ServerResponse> hybridRoutes(Scheduler blockingScheduler) {
+                VirtualThreadHandlers handlers = new VirtualThreadHandlers(blockingScheduler);
+
+                return route()
+                                .GET("/api/hybrid/persons", handlers.blocking(this::page))
+                                .GET("/api/hybrid/persons/blocking", handlers.blocking(
+                                                request -> persons(request, "hybrid-blocking",
+                                                                personService::getPersonsBlocking)))
+                                .GET("/api/hybrid/persons/blocking-intensive", handlers.blocking(
+                                                request -> persons(request, "hybrid-blocking-intensive",
+                                                                personService::getPersonsBlockingIntensive)))
+                                .GET("/api/hybrid/persons/structured", handlers.blocking(
+                                                request -> persons(request, "hybrid-structured",
+                                                                personService::getPersonsStructured)))
+                                .GET("/api/hybrid/persons/cached", handlers.blocking(
+                                                request -> persons(request, "hybrid-cached",
+                                                                personService::getPersonsCached)))
+                                .GET("/api/hybrid/persons/enriched", handlers.blocking(this::enriched))
+                                .GET("/api/hybrid/persons/preserialized", handlers.blocking(
+                                                this::preserializedSlices, HybridRouter::dataBuffers))
+                                .GET("/api/hybrid/persons/store", handlers.blocking(
+                                                this::storeChunks, chunks -> storeBody(chunks, blockingScheduler)))
+                                .GET("/api/hybrid/thread-info", handlers.blocking(request -> threadInfo()))
+                                .build();
+        }
+
+        /**
+         * Mesmo formato de resposta dos endpoints do MvcController
+         */
+        private PersonsResponse persons(ServerRequest request, String approach, IntFunction<List<Person>> query) {
+                int count = request.queryParam("count").map(Integer::parseInt).orElse(10);
+                personPagination.checkCount(count);
+
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = query.apply(count);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record(approach, endTime - startTime);
+
+                return new PersonsResponse(Map.of(
+                                "approach", approach,
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now()));
+        }
+
+        /**
+         * Listagem paginada por cursor - mesmo corpo do /api/mvc/persons
+         */
+        private PersonsResponse page(ServerRequest request) {
+                PersonPagination.Range range = personPagination.range(
+                                request.queryParam("cursor").orElse(null),
+                                request.queryParam("limit").map(Integer::valueOf).orElse(null));
+
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = personService.getPersonsRange(range.start(), range.size());
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("hybrid-page", endTime - startTime);
+
+                return MainController.pageResponse("hybrid-page", personPagination.page(range, persons),
+                                endTime - startTime, threadInfo);
+        }
+
+        /**
+         * Carga mista I/O + CPU - mesmo corpo do /api/mvc/persons/enriched
+         */
+        private Map<String, Object> enriched(ServerRequest request) {
+                int count = request.queryParam("count").map(Integer::parseInt).orElse(10);
+                personPagination.checkCount(count);
+                PersonEnricher.Strategy strategy = request.queryParam("strategy")
+                                .map(PersonEnricher.Strategy::parse)
+                                .orElseGet(personService::getDefaultEnrichmentStrategy);
+
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<EnrichedPerson> persons = personService.getPersonsEnriched(count, strategy);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("hybrid-enriched", endTime - startTime);
+
+                return Map.of(
+                                "approach", "hybrid-enriched",
+                                "strategy", strategy,
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now());
+        }
+
+        /**
+         * Pessoas do cache com o JSON pré-serializado de cada uma
+         */
+        private List<byte[]> preserializedSlices(ServerRequest request) {
+                int count = request.queryParam("count").map(Integer::parseInt).orElse(10);
+                personPagination.checkCount(count);
+
+                long startTime = System.currentTimeMillis();
+                List<Person> persons = personService.getPersonsCached(count);
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("hybrid-preserialized", endTime - startTime);
+
+                return personPayloadCache.slices("hybrid-preserialized", endTime - startTime, persons);
+        }
+
+        /**
+         * Cada fatia vira um DataBuffer que embrulha o array cacheado - o Netty
+         * escreve os bytes sem cópia nem alocação por pessoa
+         */
+        private static Mono<ServerResponse> dataBuffers(List<byte[]> slices) {
+                Flux<DataBuffer> body = Flux.fromIterable(slices).map(DefaultDataBufferFactory.sharedInstance::wrap);
+                return ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .contentLength(PersonPayloadCache.length(slices))
+                                .body(BodyInserters.fromDataBuffers(body));
+        }
+
+        /**
+         * Faixa do PersonStore: validada na Virtual Thread, renderizada sob
+         * demanda conforme o Netty pede mais dados
+         */
+        private Flux<DataBuffer> storeChunks(ServerRequest request) {
+                long start = request.queryParam("start").map(Long::parseLong).orElse(0L);
+                int count = request.queryParam("count").map(Integer::parseInt).orElse(10);
+
+                long startTime = System.currentTimeMillis();
+                return personStore.jsonArray(start, count)
+                                .doOnComplete(() -> approachMetrics.record("hybrid-store",
+                                                System.currentTimeMillis() - startTime));
+        }
+
+        /**
+         * Os blocos são gerados nas Virtual Threads: o primeiro acesso a uma
+         * página do arquivo é um page fault (leitura de disco) e não pode
+         * acontecer no event loop
+         */
+        private static Mono<ServerResponse> storeBody(Flux<DataBuffer> chunks, Scheduler blockingScheduler) {
+                return ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(BodyInserters.fromDataBuffers(chunks.subscribeOn(blockingScheduler)));
+        }
+
+        private Map<String, Object> threadInfo() {
+                return Map.of(
+                                "approach", "webflux-hybrid",
+                                "threadInfo", personService.getCurrentThreadInfo(),
+                                "timestamp", LocalDateTime.now(),
+                                "activeThreadCount", Thread.activeCount(),
+                                "availableProcessors", Runtime.getRuntime().availableProcessors(),
+                                "offloadExecutor", personService.getOffloadExecutorInfo(),
+                                "virtualThreads", threadMetrics.virtualThreadSnapshot(),
+                                "schedulers", threadMetrics.schedulerSnapshot());
+        }
+}
@@ -1,26 +1,50 @@
 package edu.renata.fraga.java_virtual_threads_sample.controller;
 
 import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.model.PersonPage;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ApproachMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.RequestTracer;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ThreadMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonEnricher;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonPagination;
 import edu.renata.fraga.java_virtual_threads_sample.service.PersonService;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonsResponse;
+import org.springframework.core.env.Environment;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class MainController {
 
         private final PersonService personService;
-
-        public MainController(PersonService personService) {
+        private final ApproachMetrics approachMetrics;
+        private final ThreadMetrics threadMetrics;
+        private final PersonPagination personPagination;
+        private final RequestTracer requestTracer;
+        private final PersonStore personStore;
+        private final Scheduler blockingScheduler;
+        private final boolean hybrid;
+
+        public MainController(PersonService personService, ApproachMetrics approachMetrics,
+                        ThreadMetrics threadMetrics, PersonPagination personPagination, RequestTracer requestTracer,
+                        PersonStore personStore, Scheduler blockingScheduler, Environment environment) {
                 this.personService = personService;
+                this.approachMetrics = approachMetrics;
+                this.threadMetrics = threadMetrics;
+                this.personPagination = personPagination;
+                this.requestTracer = requestTracer;
+                this.personStore = personStore;
+                this.blockingScheduler = blockingScheduler;
+                this.hybrid = environment.matchesProfiles("webflux-hybrid");
         }
 
         /**
@@ -35,120 +59,163 @@ public class MainController {
                                                 "mvc-traditional", "Spring MVC with traditional thread pool",
                                                 "mvc-virtual", "Spring MVC with Virtual Threads",
                                                 "webflux-traditional", "Spring WebFlux with traditional thread pool",
-                                                "webflux-virtual", "Spring WebFlux with Virtual Threads"),
-                                "endpoints", Map.of(
-                                                "Spring MVC", Map.of(
-                                                                "blocking", "/api/mvc/persons/blocking",
-                                                                "async", "/api/mvc/persons/async",
-                                                                "concurrent", "/api/mvc/persons/concurrent",
-                                                                "threadInfo", "/api/mvc/thread-info"),
-                                                "Spring WebFlux", Map.of(
-                                                                "stream", "/api/webflux/persons/stream",
-                                                                "list", "/api/webflux/persons/list",
-                                                                "parallel", "/api/webflux/persons/parallel",
-                                                                "threadInfo", "/api/webflux/thread-info")));
+                                                "webflux-virtual", "Spring WebFlux with Virtual Threads",
+                                                "webflux-hybrid", "Spring WebFlux on Netty with Virtual Thread handlers"),
+                                "endpoints", endpoints());
         }
 
-        // ============ SPRING MVC ENDPOINTS ============
-
         /**
-         * Spring MVC - Abordagem blocking tradicional
+         * No webflux-hybrid o MvcController não é registrado (servidor reativo)
          */
-        @GetMapping("/mvc/persons/blocking")
-        public ResponseEntity<Map<String, Object>> getMvcPersonsBlocking(
-                        @RequestParam(defaultValue = "10") int count) {
+        private Map<String, Object> endpoints() {
+                Map<String, Object> endpoints = new LinkedHashMap<>();
+                if (!hybrid) {
+                        endpoints.put("Spring MVC", Map.ofEntries(
+                                        Map.entry("page", "/api/mvc/persons?cursor=&limit="),
+                                        Map.entry("blocking", "/api/mvc/persons/blocking"),
+                                        Map.entry("async", "/api/mvc/persons/async"),
+                                        Map.entry("concurrent", "/api/mvc/persons/concurrent"),
+                                        Map.entry("structured", "/api/mvc/persons/structured"),
+                                        Map.entry("cached", "/api/mvc/persons/cached"),
+                                        Map.entry("enriched", "/api/mvc/persons/enriched"),
+                                        Map.entry("preserialized", "/api/mvc/persons/preserialized"),
+                                        Map.entry("stream", "/api/mvc/persons/stream"),
+                                        Map.entry("store", "/api/mvc/persons/store?start=&count="),
+                                        Map.entry("threadInfo", "/api/mvc/thread-info")));
+                }
+                endpoints.put("Spring WebFlux", Map.of(
+                                "page", "/api/webflux/persons?cursor=&limit=",
+                                "stream", "/api/webflux/persons/stream",
+                                "list", "/api/webflux/persons/list",
+                                "parallel", "/api/webflux/persons/parallel",
+                                "cached", "/api/webflux/persons/cached",
+                                "enriched", "/api/webflux/persons/enriched",
+                                "store", "/api/webflux/persons/store?start=&count=",
+                                "threadInfo", "/api/webflux/thread-info"));
+                endpoints.put("WebFlux Hybrid", Map.of(
+                                "page", "/api/hybrid/persons?cursor=&limit=",
+                                "blocking", "/api/hybrid/persons/blocking",
+                                "blockingIntensive", "/api/hybrid/persons/blocking-intensive",
+                                "structured", "/api/hybrid/persons/structured",
+                                "cached", "/api/hybrid/persons/cached",
+                                "enriched", "/api/hybrid/persons/enriched",
+                                "preserialized", "/api/hybrid/persons/preserialized",
+                                "store", "/api/hybrid/persons/store?start=&count=",
+                                "threadInfo", "/api/hybrid/thread-info"));
+                return endpoints;
+        }
+
+        // ============ SPRING WEBFLUX ENDPOINTS ============
 
+        /**
+         * Spring WebFlux - Listagem paginada por cursor com concorrência limitada
+         */
+        @GetMapping("/webflux/persons")
+        public Mono<PersonsResponse> getWebFluxPersonsPage(
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Integer limit,
+                        @RequestParam(defaultValue = "${demo.reactive.concurrency:32}") int concurrency) {
+
+                PersonPagination.Range range = personPagination.range(cursor, limit);
+                personPagination.checkConcurrency(concurrency);
                 long startTime = System.currentTimeMillis();
                 String threadInfo = personService.getCurrentThreadInfo();
 
-                List<Person> persons = personService.getPersonsBlocking(count);
+                return personService.getPersonsRangeReactive(range.start(), range.size(), concurrency)
+                                .collectList()
+                                .map(persons -> {
+                                        long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("webflux-page", endTime - startTime);
 
-                long endTime = System.currentTimeMillis();
+                                        return pageResponse("webflux-page", personPagination.page(range, persons),
+                                                        endTime - startTime, threadInfo);
+                                });
+        }
 
-                Map<String, Object> response = Map.of(
-                                "approach", "mvc-blocking",
-                                "persons", persons,
-                                "count", persons.size(),
-                                "executionTimeMs", endTime - startTime,
-                                "threadInfo", threadInfo,
-                                "timestamp", LocalDateTime.now());
+        /**
+         * Spring WebFlux - Stream de pessoas com concorrência limitada e
+         * backpressure (concurrency=1 reproduz a emissão sequencial)
+         */
+        @GetMapping(value = "/webflux/persons/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<Person> getWebFluxPersonsStream(
+                        @RequestParam(defaultValue = "10") int count,
+                        @RequestParam(defaultValue = "${demo.reactive.concurrency:32}") int concurrency) {
+                personPagination.checkStreamCount(count);
+                personPagination.checkConcurrency(concurrency);
+                long startTime = System.currentTimeMillis();
 
-                return ResponseEntity.ok(response);
+                return personService.getPersonsReactiveConcurrent(count, concurrency)
+                                .doOnComplete(() -> approachMetrics.record("webflux-stream",
+                                                System.currentTimeMillis() - startTime))
+                                // Amostrado em ring buffer - nada de console síncrono por elemento
+                                .doOnNext(person -> requestTracer.trace("webflux-stream", person.id()));
         }
 
         /**
-         * Spring MVC - Abordagem blocking com I/O intensivo (demonstra vantagens das
-         * Virtual Threads)
+         * Spring WebFlux - Faixa do PersonStore como stream NDJSON: cada registro
+         * é decodificado sob demanda no scheduler blocking do profile (page
+         * faults do arquivo mapeado fora das threads do servidor)
          */
-        @GetMapping("/mvc/persons/blocking-intensive")
-        public ResponseEntity<Map<String, Object>> getMvcPersonsBlockingIntensive(
+        @GetMapping(value = "/webflux/persons/store", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<Person> getWebFluxPersonsStore(
+                        @RequestParam(defaultValue = "0") long start,
                         @RequestParam(defaultValue = "10") int count) {
-
+                personStore.checkRange(start, count);
                 long startTime = System.currentTimeMillis();
-                String threadInfo = personService.getCurrentThreadInfo();
 
-                List<Person> persons = personService.getPersonsBlockingIntensive(count);
-
-                long endTime = System.currentTimeMillis();
-
-                Map<String, Object> response = Map.of(
-                                "approach", "mvc-blocking-intensive",
-                                "persons", persons,
-                                "count", persons.size(),
-                                "executionTimeMs", endTime - startTime,
-                                "threadInfo", threadInfo,
-                                "timestamp", LocalDateTime.now());
-
-                return ResponseEntity.ok(response);
+                return Flux.range(0, count)
+                                .map(offset -> personStore.read(start + offset))
+                                .subscribeOn(blockingScheduler)
+                                .doOnComplete(() -> approachMetrics.record("webflux-store",
+                                                System.currentTimeMillis() - startTime));
         }
 
         /**
-         * Spring MVC - Abordagem assíncrona (pode usar Virtual Threads dependendo do
-         * profile)
+         * Spring WebFlux - Lista completa
          */
-        @GetMapping("/mvc/persons/async")
-        public CompletableFuture<ResponseEntity<Map<String, Object>>> getMvcPersonsAsync(
-                        @RequestParam(defaultValue = "10") int count) {
-
+        @GetMapping("/webflux/persons/list")
+        public Mono<PersonsResponse> getWebFluxPersonsList(@RequestParam(defaultValue = "10") int count) {
+                personPagination.checkCount(count);
                 long startTime = System.currentTimeMillis();
                 String threadInfo = personService.getCurrentThreadInfo();
 
-                return personService.getPersonsAsync(count)
-                                .thenApply(persons -> {
+                return personService.getPersonsReactiveList(count)
+                                .map(persons -> {
                                         long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("webflux-reactive", endTime - startTime);
                                         String finalThreadInfo = personService.getCurrentThreadInfo();
 
-                                        Map<String, Object> response = Map.of(
-                                                        "approach", "mvc-async",
+                                        return new PersonsResponse(Map.of(
+                                                        "approach", "webflux-reactive",
                                                         "persons", persons,
                                                         "count", persons.size(),
                                                         "executionTimeMs", endTime - startTime,
                                                         "initialThreadInfo", threadInfo,
                                                         "finalThreadInfo", finalThreadInfo,
-                                                        "timestamp", LocalDateTime.now());
-
-                                        return ResponseEntity.ok(response);
+                                                        "timestamp", LocalDateTime.now()));
                                 });
         }
 
         /**
-         * Spring MVC - Processamento concorrente
+         * Spring WebFlux - Processamento paralelo
          */
-        @GetMapping("/mvc/persons/concurrent")
-        public CompletableFuture<ResponseEntity<Map<String, Object>>> getMvcPersonsConcurrent(
+        @GetMapping("/webflux/persons/parallel")
+        public Mono<PersonsResponse> getWebFluxPersonsParallel(
                         @RequestParam(defaultValue = "5") int batches,
                         @RequestParam(defaultValue = "10") int countPerBatch) {
 
+                personPagination.checkCount(batches, countPerBatch);
                 long startTime = System.currentTimeMillis();
                 String threadInfo = personService.getCurrentThreadInfo();
 
-                return personService.getPersonsConcurrent(batches, countPerBatch)
-                                .thenApply(persons -> {
+                return personService.getPersonsReactiveList(batches, countPerBatch)
+                                .map(persons -> {
                                         long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("webflux-parallel", endTime - startTime);
                                         String finalThreadInfo = personService.getCurrentThreadInfo();
 
-                                        Map<String, Object> response = Map.of(
-                                                        "approach", "mvc-concurrent",
+                                        return new PersonsResponse(Map.of(
+                                                        "approach", "webflux-parallel",
                                                         "persons", persons,
                                                         "totalCount", persons.size(),
                                                         "batches", batches,
@@ -156,90 +223,72 @@ public class MainController {
                                                         "executionTimeMs", endTime - startTime,
                                                         "initialThreadInfo", threadInfo,
                                                         "finalThreadInfo", finalThreadInfo,
-                                                        "timestamp", LocalDateTime.now());
-
-                                        return ResponseEntity.ok(response);
+                                                        "timestamp", LocalDateTime.now()));
                                 });
         }
 
         /**
-         * Spring MVC - Informações sobre threads
-         */
-        @GetMapping("/mvc/thread-info")
-        public ResponseEntity<Map<String, Object>> getMvcThreadInfo() {
-                String threadInfo = personService.getCurrentThreadInfo();
-
-                Map<String, Object> response = Map.of(
-                                "approach", "mvc",
-                                "threadInfo", threadInfo,
-                                "timestamp", LocalDateTime.now(),
-                                "activeThreadCount", Thread.activeCount(),
-                                "availableProcessors", Runtime.getRuntime().availableProcessors());
-
-                return ResponseEntity.ok(response);
-        }
-
-        // ============ SPRING WEBFLUX ENDPOINTS ============
-
-        /**
-         * Spring WebFlux - Stream de pessoas
+         * Spring WebFlux - Pessoas via o mesmo cache da versão MVC
          */
-        @GetMapping(value = "/webflux/persons/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
-        public Flux<Person> getWebFluxPersonsStream(@RequestParam(defaultValue = "10") int count) {
-                return personService.getPersonsReactive(count)
-                                .doOnSubscribe(
-                                                subscription -> System.out.println("WebFlux Stream - "
-                                                                + personService.getCurrentThreadInfo()))
-                                .doOnNext(person -> System.out.println("Emitting person: " + person.name() + " on " +
-                                                personService.getCurrentThreadInfo()));
-        }
+        @GetMapping("/webflux/persons/cached")
+        public Mono<Map<String, Object>> getWebFluxPersonsCached(
+                        @RequestParam(defaultValue = "10") int count,
+                        @RequestParam(defaultValue = "${demo.reactive.concurrency:32}") int concurrency) {
 
-        /**
-         * Spring WebFlux - Lista completa
-         */
-        @GetMapping("/webflux/persons/list")
-        public Mono<Map<String, Object>> getWebFluxPersonsList(@RequestParam(defaultValue = "10") int count) {
+                personPagination.checkCount(count);
+                personPagination.checkConcurrency(concurrency);
                 long startTime = System.currentTimeMillis();
                 String threadInfo = personService.getCurrentThreadInfo();
 
-                return personService.getPersonsReactiveList(count)
+                return personService.getPersonsCachedReactive(count, concurrency)
+                                .collectList()
                                 .map(persons -> {
                                         long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("webflux-cached", endTime - startTime);
                                         String finalThreadInfo = personService.getCurrentThreadInfo();
 
                                         return Map.of(
-                                                        "approach", "webflux-reactive",
+                                                        "approach", "webflux-cached",
                                                         "persons", persons,
                                                         "count", persons.size(),
                                                         "executionTimeMs", endTime - startTime,
                                                         "initialThreadInfo", threadInfo,
                                                         "finalThreadInfo", finalThreadInfo,
+                                                        "cache", personService.getCacheInfo(),
                                                         "timestamp", LocalDateTime.now());
                                 });
         }
 
         /**
-         * Spring WebFlux - Processamento paralelo
+         * Spring WebFlux - Carga mista I/O + CPU: busca reativa e enriquecimento
+         * CPU-bound na estratégia pedida
          */
-        @GetMapping("/webflux/persons/parallel")
-        public Mono<Map<String, Object>> getWebFluxPersonsParallel(
-                        @RequestParam(defaultValue = "5") int batches,
-                        @RequestParam(defaultValue = "10") int countPerBatch) {
-
+        @GetMapping("/webflux/persons/enriched")
+        public Mono<Map<String, Object>> getWebFluxPersonsEnriched(
+                        @RequestParam(defaultValue = "10") int count,
+                        @RequestParam(required = false) String strategy,
+                        @RequestParam(defaultValue = "${demo.reactive.concurrency:32}") int concurrency) {
+
+                personPagination.checkCount(count);
+                personPagination.checkConcurrency(concurrency);
+                PersonEnricher.Strategy enrichment = strategy == null
+                                ? personService.getDefaultEnrichmentStrategy()
+                                : PersonEnricher.Strategy.parse(strategy);
                 long startTime = System.currentTimeMillis();
                 String threadInfo = personService.getCurrentThreadInfo();
 
-                return personService.getPersonsReactiveList(batches, countPerBatch)
+                return personService.getPersonsEnrichedReactive(count, concurrency, enrichment)
+                                .collectList()
                                 .map(persons -> {
                                         long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("webflux-enriched", endTime - startTime);
                                         String finalThreadInfo = personService.getCurrentThreadInfo();
 
                                         return Map.of(
-                                                        "approach", "webflux-parallel",
+                                                        "approach", "webflux-enriched",
+                                                        "strategy", enrichment,
                                                         "persons", persons,
-                                                        "totalCount", persons.size(),
-                                                        "batches", batches,
-                                                        "countPerBatch", countPerBatch,
+                                                        "count", persons.size(),
                                                         "executionTimeMs", endTime - startTime,
                                                         "initialThreadInfo", threadInfo,
                                                         "finalThreadInfo", finalThreadInfo,
@@ -252,25 +301,27 @@ public class MainController {
          * Virtual Threads)
          */
         @GetMapping("/webflux/persons/list-intensive")
-        public Mono<Map<String, Object>> getWebFluxPersonsListIntensive(
+        public Mono<PersonsResponse> getWebFluxPersonsListIntensive(
                         @RequestParam(defaultValue = "10") int count) {
 
+                personPagination.checkCount(count);
                 long startTime = System.currentTimeMillis();
                 String threadInfo = personService.getCurrentThreadInfo();
 
                 return personService.getPersonsReactiveListIntensive(count)
                                 .map(persons -> {
                                         long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("webflux-list-intensive", endTime - startTime);
                                         String finalThreadInfo = personService.getCurrentThreadInfo();
 
-                                        return Map.of(
+                                        return new PersonsResponse(Map.of(
                                                         "approach", "webflux-list-intensive",
                                                         "persons", persons,
                                                         "count", persons.size(),
                                                         "executionTimeMs", endTime - startTime,
                                                         "initialThreadInfo", threadInfo,
                                                         "finalThreadInfo", finalThreadInfo,
-                                                        "timestamp", LocalDateTime.now());
+                                                        "timestamp", LocalDateTime.now()));
                                 });
         }
 
@@ -287,7 +338,31 @@ public class MainController {
                                         "threadInfo", threadInfo,
                                         "timestamp", LocalDateTime.now(),
                                         "activeThreadCount", Thread.activeCount(),
-                                        "availableProcessors", Runtime.getRuntime().availableProcessors());
+                                        "availableProcessors", Runtime.getRuntime().availableProcessors(),
+                                        "offloadExecutor", personService.getOffloadExecutorInfo(),
+                                        "virtualThreads", threadMetrics.virtualThreadSnapshot(),
+                                        "schedulers", threadMetrics.schedulerSnapshot());
                 });
         }
+
+        /**
+         * Corpo das respostas paginadas (também usado pelo HybridRouter) -
+         * nextCursor só aparece quando existe uma próxima página
+         */
+        static PersonsResponse pageResponse(String approach, PersonPage page, long executionTimeMs,
+                        String threadInfo) {
+                PersonsResponse response = new PersonsResponse();
+                response.put("approach", approach);
+                response.put("persons", page.persons());
+                response.put("count", page.persons().size());
+                response.put("limit", page.limit());
+                response.put("hasMore", page.hasMore());
+                if (page.hasMore()) {
+                        response.put("nextCursor", page.nextCursor());
+                }
+                response.put("executionTimeMs", executionTimeMs);
+                response.put("threadInfo", threadInfo);
+                response.put("timestamp", LocalDateTime.now());
+                return response;
+        }
 }
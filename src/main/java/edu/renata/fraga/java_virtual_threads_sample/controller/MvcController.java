@@ -0,0 +1,401 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ApproachMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ThreadMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonEnricher;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonPagination;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonService;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonsResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Endpoints Spring MVC: handlers blocking e respostas escritas direto no
+ * HttpServletResponse/StreamingResponseBody. Fora do webflux-hybrid, onde o
+ * servidor é reativo (Netty) e esses handlers rodariam no event loop ou nem
+ * seriam resolvidos - lá as mesmas abordagens ficam no HybridRouter.
+ */
+@RestController
+@RequestMapping("/api")
+@Profile("!webflux-hybrid")
+public class MvcController {
+
+        private final PersonService personService;
+        private final ApproachMetrics approachMetrics;
+        private final ThreadMetrics threadMetrics;
+        private final ObjectWriter ndjsonPersonWriter;
+        private final PersonPayloadCache personPayloadCache;
+        private final PersonPagination personPagination;
+        private final PersonStore personStore;
+
+        public MvcController(PersonService personService, ApproachMetrics approachMetrics,
+                        ThreadMetrics threadMetrics, ObjectMapper objectMapper, PersonPayloadCache personPayloadCache,
+                        PersonPagination personPagination, PersonStore personStore) {
+                this.personService = personService;
+                this.approachMetrics = approachMetrics;
+                this.threadMetrics = threadMetrics;
+                this.personPayloadCache = personPayloadCache;
+                this.personPagination = personPagination;
+                this.personStore = personStore;
+                // Flush controlado pelo endpoint (por lote), não a cada pessoa escrita
+                this.ndjsonPersonWriter = objectMapper.writerFor(Person.class)
+                                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        /**
+         * Spring MVC - Listagem paginada por cursor: cada página é gerada em
+         * paralelo e só ela fica em memória, então volumes arbitrários são
+         * percorridos seguindo nextCursor
+         */
+        @GetMapping("/mvc/persons")
+        public ResponseEntity<PersonsResponse> getMvcPersonsPage(
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Integer limit) {
+
+                PersonPagination.Range range = personPagination.range(cursor, limit);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = personService.getPersonsRange(range.start(), range.size());
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-page", endTime - startTime);
+
+                return ResponseEntity.ok(MainController.pageResponse("mvc-page", personPagination.page(range, persons),
+                                endTime - startTime, threadInfo));
+        }
+
+        /**
+         * Spring MVC - Abordagem blocking tradicional
+         */
+        @GetMapping("/mvc/persons/blocking")
+        public ResponseEntity<PersonsResponse> getMvcPersonsBlocking(
+                        @RequestParam(defaultValue = "10") int count) {
+
+                personPagination.checkCount(count);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = personService.getPersonsBlocking(count);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-blocking", endTime - startTime);
+
+                PersonsResponse response = new PersonsResponse(Map.of(
+                                "approach", "mvc-blocking",
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now()));
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Spring MVC - Abordagem blocking com I/O intensivo (demonstra vantagens das
+         * Virtual Threads)
+         */
+        @GetMapping("/mvc/persons/blocking-intensive")
+        public ResponseEntity<PersonsResponse> getMvcPersonsBlockingIntensive(
+                        @RequestParam(defaultValue = "10") int count) {
+
+                personPagination.checkCount(count);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = personService.getPersonsBlockingIntensive(count);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-blocking-intensive", endTime - startTime);
+
+                PersonsResponse response = new PersonsResponse(Map.of(
+                                "approach", "mvc-blocking-intensive",
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now()));
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Spring MVC - Abordagem assíncrona (pode usar Virtual Threads dependendo do
+         * profile)
+         */
+        @GetMapping("/mvc/persons/async")
+        public CompletableFuture<ResponseEntity<PersonsResponse>> getMvcPersonsAsync(
+                        @RequestParam(defaultValue = "10") int count) {
+
+                personPagination.checkCount(count);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                return personService.getPersonsAsync(count)
+                                .thenApply(persons -> {
+                                        long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("mvc-async", endTime - startTime);
+                                        String finalThreadInfo = personService.getCurrentThreadInfo();
+
+                                        PersonsResponse response = new PersonsResponse(Map.of(
+                                                        "approach", "mvc-async",
+                                                        "persons", persons,
+                                                        "count", persons.size(),
+                                                        "executionTimeMs", endTime - startTime,
+                                                        "initialThreadInfo", threadInfo,
+                                                        "finalThreadInfo", finalThreadInfo,
+                                                        "timestamp", LocalDateTime.now()));
+
+                                        return ResponseEntity.ok(response);
+                                });
+        }
+
+        /**
+         * Spring MVC - Processamento concorrente
+         */
+        @GetMapping("/mvc/persons/concurrent")
+        public CompletableFuture<ResponseEntity<PersonsResponse>> getMvcPersonsConcurrent(
+                        @RequestParam(defaultValue = "5") int batches,
+                        @RequestParam(defaultValue = "10") int countPerBatch) {
+
+                personPagination.checkCount(batches, countPerBatch);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                return personService.getPersonsConcurrent(batches, countPerBatch)
+                                .thenApply(persons -> {
+                                        long endTime = System.currentTimeMillis();
+                                        approachMetrics.record("mvc-concurrent", endTime - startTime);
+                                        String finalThreadInfo = personService.getCurrentThreadInfo();
+
+                                        PersonsResponse response = new PersonsResponse(Map.of(
+                                                        "approach", "mvc-concurrent",
+                                                        "persons", persons,
+                                                        "totalCount", persons.size(),
+                                                        "batches", batches,
+                                                        "countPerBatch", countPerBatch,
+                                                        "executionTimeMs", endTime - startTime,
+                                                        "initialThreadInfo", threadInfo,
+                                                        "finalThreadInfo", finalThreadInfo,
+                                                        "timestamp", LocalDateTime.now()));
+
+                                        return ResponseEntity.ok(response);
+                                });
+        }
+
+        /**
+         * Spring MVC - Fan-out estruturado com Virtual Threads (uma por pessoa)
+         */
+        @GetMapping("/mvc/persons/structured")
+        public ResponseEntity<PersonsResponse> getMvcPersonsStructured(
+                        @RequestParam(defaultValue = "10") int count) {
+
+                personPagination.checkCount(count);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = personService.getPersonsStructured(count);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-structured", endTime - startTime);
+
+                PersonsResponse response = new PersonsResponse(Map.of(
+                                "approach", "mvc-structured",
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now()));
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Spring MVC - Pessoas via cache read-through (misses concorrentes do mesmo
+         * índice compartilham uma única chamada ao backend)
+         */
+        @GetMapping("/mvc/persons/cached")
+        public ResponseEntity<Map<String, Object>> getMvcPersonsCached(
+                        @RequestParam(defaultValue = "10") int count) {
+
+                personPagination.checkCount(count);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<Person> persons = personService.getPersonsCached(count);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-cached", endTime - startTime);
+
+                Map<String, Object> response = Map.of(
+                                "approach", "mvc-cached",
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "cache", personService.getCacheInfo(),
+                                "timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Spring MVC - Carga mista I/O + CPU: fan-out das buscas e enriquecimento
+         * CPU-bound na estratégia pedida (inline, fork-join, reactor-parallel)
+         */
+        @GetMapping("/mvc/persons/enriched")
+        public ResponseEntity<Map<String, Object>> getMvcPersonsEnriched(
+                        @RequestParam(defaultValue = "10") int count,
+                        @RequestParam(required = false) String strategy) {
+
+                personPagination.checkCount(count);
+                PersonEnricher.Strategy enrichment = strategy == null
+                                ? personService.getDefaultEnrichmentStrategy()
+                                : PersonEnricher.Strategy.parse(strategy);
+                long startTime = System.currentTimeMillis();
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                List<EnrichedPerson> persons = personService.getPersonsEnriched(count, enrichment);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-enriched", endTime - startTime);
+
+                Map<String, Object> response = Map.of(
+                                "approach", "mvc-enriched",
+                                "strategy", enrichment,
+                                "persons", persons,
+                                "count", persons.size(),
+                                "executionTimeMs", endTime - startTime,
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Spring MVC - Pessoas do cache com JSON pré-serializado: as fatias de
+         * bytes cacheadas por pessoa são escritas direto no buffer de saída do
+         * Tomcat, sem montar Map nem passar pelo Jackson a cada requisição
+         */
+        @GetMapping(value = "/mvc/persons/preserialized", produces = MediaType.APPLICATION_JSON_VALUE)
+        public void getMvcPersonsPreserialized(@RequestParam(defaultValue = "10") int count,
+                        HttpServletResponse response) throws IOException {
+
+                personPagination.checkCount(count);
+                long startTime = System.currentTimeMillis();
+
+                List<Person> persons = personService.getPersonsCached(count);
+
+                long endTime = System.currentTimeMillis();
+                approachMetrics.record("mvc-preserialized", endTime - startTime);
+
+                List<byte[]> slices = personPayloadCache.slices("mvc-preserialized", endTime - startTime, persons);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setContentLengthLong(PersonPayloadCache.length(slices));
+                PersonPayloadCache.writeTo(slices, response.getOutputStream());
+        }
+
+        /**
+         * Spring MVC - Stream NDJSON: cada pessoa é escrita assim que gerada e o
+         * flush acontece por lote, mantendo o heap constante mesmo com count na
+         * casa das centenas de milhares. Roda no executor async do profile
+         * (Virtual Threads no mvc-virtual).
+         */
+        @GetMapping(value = "/mvc/persons/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> getMvcPersonsStream(
+                        @RequestParam(defaultValue = "10") int count,
+                        @RequestParam(defaultValue = "${demo.stream.flush-batch-size:256}") int batchSize) {
+
+                if (batchSize <= 0) {
+                        return ResponseEntity.badRequest().build();
+                }
+                personPagination.checkStreamCount(count);
+
+                StreamingResponseBody body = outputStream -> {
+                        long startTime = System.currentTimeMillis();
+                        try (JsonGenerator generator = ndjsonPersonWriter.createGenerator(outputStream);
+                                        Stream<Person> persons = personService.streamPersons(count, batchSize)) {
+                                // O container fecha o OutputStream, não o generator
+                                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                                generator.setRootValueSeparator(null);
+
+                                int written = 0;
+                                for (Iterator<Person> iterator = persons.iterator(); iterator.hasNext();) {
+                                        ndjsonPersonWriter.writeValue(generator, iterator.next());
+                                        generator.writeRaw('\n');
+                                        if (++written % batchSize == 0) {
+                                                generator.flush();
+                                        }
+                                }
+                        }
+                        approachMetrics.record("mvc-stream", System.currentTimeMillis() - startTime);
+                };
+
+                return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .body(body);
+        }
+
+        /**
+         * Spring MVC - Faixa do PersonStore mapeado em memória: o JSON é escrito
+         * direto dos registros do arquivo em blocos de 64 KiB, sem Person nem
+         * Jackson por pessoa, então count pode cobrir o dataset inteiro
+         */
+        @GetMapping(value = "/mvc/persons/store", produces = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> getMvcPersonsStore(
+                        @RequestParam(defaultValue = "0") long start,
+                        @RequestParam(defaultValue = "10") int count) {
+
+                personStore.checkRange(start, count);
+
+                StreamingResponseBody body = outputStream -> {
+                        long startTime = System.currentTimeMillis();
+                        personStore.writeJsonArray(start, count, outputStream);
+                        approachMetrics.record("mvc-store", System.currentTimeMillis() - startTime);
+                };
+
+                return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(body);
+        }
+
+        /**
+         * Spring MVC - Informações sobre threads
+         */
+        @GetMapping("/mvc/thread-info")
+        public ResponseEntity<Map<String, Object>> getMvcThreadInfo() {
+                String threadInfo = personService.getCurrentThreadInfo();
+
+                Map<String, Object> response = Map.of(
+                                "approach", "mvc",
+                                "threadInfo", threadInfo,
+                                "timestamp", LocalDateTime.now(),
+                                "activeThreadCount", Thread.activeCount(),
+                                "availableProcessors", Runtime.getRuntime().availableProcessors(),
+                                "offloadExecutor", personService.getOffloadExecutorInfo(),
+                                "virtualThreads", threadMetrics.virtualThreadSnapshot(),
+                                "schedulers", threadMetrics.schedulerSnapshot());
+
+                return ResponseEntity.ok(response);
+        }
+}
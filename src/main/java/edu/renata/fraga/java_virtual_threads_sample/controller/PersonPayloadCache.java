@@ -0,0 +1,105 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JSON pré-serializado de cada Person, indexado pelo id. As pessoas são
+ * determinísticas por índice (PersonService.createPerson), então os bytes
+ * de um id nunca mudam e podem ser reaproveitados entre requisições.
+ * <p>
+ * Uma resposta é a concatenação de fatias: envelope + pessoas separadas por
+ * vírgula + fechamento - sem Map nem String intermediários por requisição.
+ * As fatias são imutáveis e podem ser escritas direto no OutputStream (MVC)
+ * ou embrulhadas em DataBuffers sem cópia (WebFlux).
+ */
+@Component
+public class PersonPayloadCache {
+
+    private static final byte[] SEPARATOR = {','};
+    private static final byte[] SUFFIX = {']', '}'};
+
+    private final ObjectWriter personWriter;
+    private final AtomicReferenceArray<byte[]> encoded;
+
+    public PersonPayloadCache(ObjectMapper objectMapper,
+            @Value("${demo.preserialized.max-entries:10000}") int maxEntries) {
+        this.personWriter = objectMapper.writerFor(Person.class);
+        this.encoded = new AtomicReferenceArray<>(maxEntries);
+    }
+
+    /**
+     * Bytes JSON da pessoa - ids fora da faixa cacheada são serializados na hora
+     */
+    public byte[] encoded(Person person) {
+        long id = person.id();
+        if (id < 0 || id >= encoded.length()) {
+            return serialize(person);
+        }
+        byte[] bytes = encoded.get((int) id);
+        if (bytes == null) {
+            // Corrida benigna: duas threads podem serializar o mesmo id, o resultado é igual
+            bytes = serialize(person);
+            encoded.set((int) id, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Fatias da resposta {"approach":...,"count":...,"executionTimeMs":...,"persons":[...]}
+     */
+    public List<byte[]> slices(String approach, long executionTimeMs, List<Person> persons) {
+        List<byte[]> slices = new ArrayList<>(persons.size() * 2 + 2);
+        slices.add(envelope(approach, persons.size(), executionTimeMs));
+        for (int i = 0; i < persons.size(); i++) {
+            if (i > 0) {
+                slices.add(SEPARATOR);
+            }
+            slices.add(encoded(persons.get(i)));
+        }
+        slices.add(SUFFIX);
+        return slices;
+    }
+
+    public static long length(List<byte[]> slices) {
+        long length = 0;
+        for (byte[] slice : slices) {
+            length += slice.length;
+        }
+        return length;
+    }
+
+    public static void writeTo(List<byte[]> slices, OutputStream outputStream) throws IOException {
+        for (byte[] slice : slices) {
+            outputStream.write(slice);
+        }
+    }
+
+    private static byte[] envelope(String approach, int count, long executionTimeMs) {
+        // approach é sempre uma constante ASCII dos controllers - não precisa de escape
+        return ("{\"approach\":\"" + approach
+                + "\",\"count\":" + count
+                + ",\"executionTimeMs\":" + executionTimeMs
+                + ",\"persons\":[").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] serialize(Person person) {
+        try {
+            return personWriter.writeValueAsBytes(person);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendUnavailableException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BulkheadFullException;
+import edu.renata.fraga.java_virtual_threads_sample.service.DeadlineExceededException;
+import edu.renata.fraga.java_virtual_threads_sample.service.InvalidPersonRequestException;
+import edu.renata.fraga.java_virtual_threads_sample.service.RequestDeadline;
+import edu.renata.fraga.java_virtual_threads_sample.wire.PersonsResponse;
+import edu.renata.fraga.java_virtual_threads_sample.wire.WireFormats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * Adapta handlers imperativos (blocking) para RouterFunction: cada chamada
+ * vira um Mono.fromCallable assinado no scheduler de Virtual Threads, então o
+ * código do handler pode chamar o PersonService diretamente, sem publishOn
+ * manual. O deadline da requisição (contexto Reactor) é associado à Virtual
+ * Thread enquanto o handler roda.
+ */
+public class VirtualThreadHandlers {
+
+    /**
+     * Handler imperativo - retorna o corpo da resposta
+     */
+    @FunctionalInterface
+    public interface BlockingHandler<T> {
+        T handle(ServerRequest request) throws Exception;
+    }
+
+    /**
+     * Formatos dos corpos negociados pelo Accept, na ordem de preferência do
+     * servidor (JSON quando o Accept falta ou é curinga). Protobuf só para PersonsResponse
+     */
+    private static final List<MediaType> BODY_TYPES = List.of(
+            MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE, WireFormats.COLUMNAR_JSON,
+            WireFormats.PROTOBUF);
+
+    private final Scheduler scheduler;
+
+    public VirtualThreadHandlers(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Corpo serializado pelo codec do formato pedido no Accept (JSON, CBOR,
+     * Smile, JSON colunar ou Protobuf), como na negociação do MVC
+     */
+    public <T> HandlerFunction<ServerResponse> blocking(BlockingHandler<T> handler) {
+        return request -> blocking(handler, body -> negotiated(request, ServerResponse.ok(), body)).handle(request);
+    }
+
+    /**
+     * Corpo escrito pelo renderer (ex: DataBuffers já codificados)
+     */
+    public <T> HandlerFunction<ServerResponse> blocking(BlockingHandler<T> handler,
+            Function<T, Mono<ServerResponse>> renderer) {
+        return request -> Mono.deferContextual(context -> {
+                    RequestDeadline deadline = RequestDeadline.current(context);
+                    return Mono.fromCallable(() -> {
+                        try (RequestDeadline.Scope ignored = RequestDeadline.bind(deadline)) {
+                            return handler.handle(request);
+                        }
+                    });
+                })
+                .subscribeOn(scheduler)
+                .flatMap(renderer)
+                .onErrorResume(InvalidPersonRequestException.class, e -> error(request, HttpStatus.BAD_REQUEST, e))
+                // Query param não numérico (parseInt/parseLong nos handlers) - 400 como no @RequestParam do MVC
+                .onErrorResume(NumberFormatException.class, e -> error(request, HttpStatus.BAD_REQUEST, e))
+                .onErrorResume(DeadlineExceededException.class, e -> error(request, HttpStatus.GATEWAY_TIMEOUT, e))
+                .onErrorResume(BackendUnavailableException.class, e -> error(request, HttpStatus.BAD_GATEWAY, e))
+                .onErrorResume(BulkheadFullException.class, e -> error(request, HttpStatus.SERVICE_UNAVAILABLE, e))
+                .onErrorResume(CancellationException.class, e -> error(request, HttpStatus.SERVICE_UNAVAILABLE, e));
+    }
+
+    /**
+     * Mesmos status e corpo do ApiExceptionHandler
+     */
+    private static Mono<ServerResponse> error(ServerRequest request, HttpStatus status, RuntimeException e) {
+        ServerResponse.BodyBuilder builder = ServerResponse.status(status);
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            builder.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return negotiated(request, builder, new PersonsResponse(Map.of(
+                "error", String.valueOf(e.getMessage()),
+                "timestamp", LocalDateTime.now())));
+    }
+
+    /**
+     * Functional endpoints não negociam o Accept sozinhos (o bodyValue sem
+     * Content-Type usa o primeiro writer que aceita o tipo): escolhe aqui o
+     * formato e deixa o encoder registrado para ele escrever. Nenhum formato
+     * aceitável - 406, como no MVC
+     */
+    private static Mono<ServerResponse> negotiated(ServerRequest request, ServerResponse.BodyBuilder builder,
+            Object body) {
+        List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        if (accepted.isEmpty()) {
+            accepted.add(MediaType.ALL);
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptedType : accepted) {
+            if (acceptedType.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType bodyType : BODY_TYPES) {
+                if (bodyType.equals(WireFormats.PROTOBUF) && !(body instanceof PersonsResponse)) {
+                    continue;
+                }
+                if (acceptedType.isCompatibleWith(bodyType)) {
+                    return builder.contentType(bodyType).bodyValue(body);
+                }
+            }
+        }
+        return ServerResponse.status(HttpStatus.NOT_ACCEPTABLE).build();
+    }
+}
@@ -0,0 +1,359 @@
+package edu.renata.fraga.java_virtual_threads_sample.downstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendUnavailableException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BulkheadFullException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.Http2AllocationStrategy;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Modo downstream HTTP do PersonService (demo.downstream.enabled): cada
+ * pessoa vem de uma chamada HTTP real a um serviço downstream - por padrão o
+ * StubDownstreamServer local, ou demo.downstream.base-url.
+ * <ul>
+ * <li>caminho blocking (MVC): RestClient ou java.net.http.HttpClient direto,
+ * chamados da Virtual Thread da requisição; o HttpClient do JDK não tem limite
+ * de conexões, então um Semaphore limita as requisições em andamento</li>
+ * <li>caminho reativo (WebFlux): WebClient sobre Reactor Netty com um
+ * ConnectionProvider de max-connections conexões e fila de espera</li>
+ * </ul>
+ * Em http1 cada requisição ocupa uma conexão e os dois lados limitam
+ * max-connections requisições simultâneas. Com protocol=h2c os dois clientes
+ * usam HTTP/2 em texto claro: o ConnectionProvider abre até max-connections
+ * conexões com até max-concurrent-streams streams cada, e o Semaphore do
+ * blocking (que não enxerga as conexões do HttpClient) passa a ter
+ * max-connections × max-concurrent-streams vagas - o mesmo número de
+ * requisições simultâneas nos dois lados.
+ */
+@Component
+public class DownstreamPersonClient implements MeterBinder {
+
+    /**
+     * Protocolo das chamadas ao downstream
+     */
+    public enum Protocol {
+        HTTP1, H2C;
+
+        public static Protocol parse(String value) {
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "http1", "http/1.1" -> HTTP1;
+                case "h2c", "http2" -> H2C;
+                default -> throw new IllegalArgumentException(
+                        "demo.downstream.protocol inválido: " + value + " (http1, h2c)");
+            };
+        }
+    }
+
+    private final PersonBackend backend;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String configuredBaseUrl;
+    private final int stubPort;
+    private final Protocol protocol;
+    private final boolean restClientEnabled;
+    private final int maxConnections;
+    private final int maxConcurrentStreams;
+    private final int maxInFlight;
+    private final Duration pendingAcquireTimeout;
+    private final Duration responseTimeout;
+
+    private final Semaphore connections;
+
+    private final LongAdder blockingCalls = new LongAdder();
+    private final LongAdder reactiveCalls = new LongAdder();
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private volatile StubDownstreamServer stub;
+    private volatile String baseUrl;
+    private volatile ExecutorService httpClientExecutor;
+    private volatile HttpClient httpClient;
+    private volatile RestClient restClient;
+    private volatile ConnectionProvider connectionProvider;
+    private volatile WebClient webClient;
+
+    public DownstreamPersonClient(
+            PersonBackend backend,
+            ObjectMapper objectMapper,
+            @Value("${demo.downstream.enabled:false}") boolean enabled,
+            @Value("${demo.downstream.base-url:}") String baseUrl,
+            @Value("${demo.downstream.stub-port:0}") int stubPort,
+            @Value("${demo.downstream.protocol:http1}") String protocol,
+            @Value("${demo.downstream.blocking-client:rest-client}") String blockingClient,
+            @Value("${demo.downstream.max-connections:100}") int maxConnections,
+            @Value("${demo.downstream.max-concurrent-streams:100}") int maxConcurrentStreams,
+            @Value("${demo.downstream.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${demo.downstream.response-timeout-ms:10000}") long responseTimeoutMs) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("demo.downstream.max-connections deve ser positivo: " + maxConnections);
+        }
+        if (maxConcurrentStreams <= 0) {
+            throw new IllegalArgumentException(
+                    "demo.downstream.max-concurrent-streams deve ser positivo: " + maxConcurrentStreams);
+        }
+        this.restClientEnabled = switch (blockingClient) {
+            case "rest-client" -> true;
+            case "jdk" -> false;
+            default -> throw new IllegalArgumentException(
+                    "demo.downstream.blocking-client inválido: " + blockingClient + " (rest-client, jdk)");
+        };
+        this.backend = backend;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.configuredBaseUrl = baseUrl;
+        this.stubPort = stubPort;
+        this.protocol = Protocol.parse(protocol);
+        this.maxConnections = maxConnections;
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.maxInFlight = this.protocol == Protocol.H2C
+                ? Math.multiplyExact(maxConnections, maxConcurrentStreams)
+                : maxConnections;
+        this.pendingAcquireTimeout = Duration.ofMillis(pendingAcquireTimeoutMs);
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMs);
+        this.connections = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Quando desabilitado o PersonService mantém o backend simulado
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sobe o stub local (sem base-url configurada) e cria os clientes
+     */
+    public void start(IntFunction<Person> generator) {
+        if (configuredBaseUrl == null || configuredBaseUrl.isBlank()) {
+            stub = new StubDownstreamServer(backend, objectMapper, generator, stubPort);
+            baseUrl = stub.baseUrl();
+        } else {
+            baseUrl = configuredBaseUrl;
+        }
+
+        httpClientExecutor = VirtualThreads.newThreadPerTaskExecutor("downstream-http-");
+        httpClient = HttpClient.newBuilder()
+                .executor(httpClientExecutor)
+                .version(protocol == Protocol.H2C ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(responseTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(responseTimeout);
+        restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("downstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .pendingAcquireMaxCount(-1)
+                .metrics(true); // reactor.netty.connection.provider.* (conexões ativas, ociosas, pendentes)
+        if (protocol == Protocol.H2C) {
+            // Em HTTP/2 o pool entrega streams: sem a estratégia o limite de streams por conexão vem só do servidor
+            pool.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(maxConnections)
+                    .maxConcurrentStreams(maxConcurrentStreams)
+                    .build());
+        }
+        connectionProvider = pool.build();
+        webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(reactor.netty.http.client.HttpClient
+                        .create(connectionProvider)
+                        .protocol(protocol == Protocol.H2C ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                        .responseTimeout(responseTimeout)))
+                .build();
+    }
+
+    /**
+     * Chamada blocking na thread atual - com Virtual Threads a espera pelo
+     * socket não ocupa a carrier
+     */
+    public Person fetch(Call call, int index) {
+        acquire(call);
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            blockingCalls.increment();
+            return restClientEnabled
+                    ? restClient.get().uri("/persons/{index}?call={call}", index, call).retrieve().body(Person.class)
+                    : fetchWithHttpClient(call, index);
+        } catch (RestClientException | IOException e) {
+            errors.increment();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Chamada downstream interrompida");
+            }
+            throw new BackendUnavailableException("Falha na chamada downstream: " + e.getMessage(), e);
+        } finally {
+            inFlight.decrementAndGet();
+            connections.release();
+        }
+    }
+
+    private Person fetchWithHttpClient(Call call, int index) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/persons/" + index + "?call=" + call))
+                .timeout(responseTimeout)
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            return objectMapper.readValue(response.body(), Person.class);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Chamada downstream interrompida");
+        }
+    }
+
+    private void acquire(Call call) {
+        long start = System.nanoTime();
+        try {
+            if (!connections.tryAcquire(pendingAcquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new BulkheadFullException(call);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Espera por conexão downstream interrompida");
+        }
+        long waited = System.nanoTime() - start;
+        acquires.increment();
+        acquireNanos.add(waited);
+        maxAcquireNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    /**
+     * Chamada non-blocking via WebClient - a espera por conexão fica na fila
+     * do ConnectionProvider, sem thread
+     */
+    public Mono<Person> fetchReactive(int index) {
+        return Mono.defer(() -> {
+                    reactiveCalls.increment();
+                    return webClient.get()
+                            .uri("/persons/{index}?call={call}", index, Call.REACTIVE)
+                            .retrieve()
+                            .bodyToMono(Person.class);
+                })
+                .onErrorMap(error -> !(error instanceof BackendUnavailableException), error -> {
+                    errors.increment();
+                    if (error instanceof TimeoutException || error.getCause() instanceof TimeoutException) {
+                        // Fila do pool de conexões esgotou pending-acquire-timeout
+                        rejected.increment();
+                        return new BulkheadFullException(Call.REACTIVE);
+                    }
+                    return new BackendUnavailableException("Falha na chamada downstream: " + error.getMessage(), error);
+                });
+    }
+
+    /**
+     * Configuração e contadores para o endpoint de diagnóstico
+     */
+    public Map<String, Object> snapshot() {
+        long acquireCount = acquires.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("baseUrl", baseUrl);
+        snapshot.put("stub", stub != null);
+        snapshot.put("protocol", protocol);
+        snapshot.put("blockingClient", restClientEnabled ? "rest-client" : "jdk");
+        snapshot.put("maxConnections", maxConnections);
+        snapshot.put("maxConcurrentStreams", maxConcurrentStreams);
+        snapshot.put("blockingMaxInFlight", maxInFlight);
+        snapshot.put("blockingCalls", blockingCalls.sum());
+        snapshot.put("blockingInFlight", inFlight.get());
+        snapshot.put("blockingPeakInFlight", peakInFlight.get());
+        snapshot.put("avgAcquireMs", acquireCount == 0 ? 0 : acquireNanos.sum() / 1e6 / acquireCount);
+        snapshot.put("maxAcquireMs", maxAcquireNanos.get() / 1e6);
+        snapshot.put("reactiveCalls", reactiveCalls.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("errors", errors.sum());
+        return snapshot;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionTimer.builder("downstream.acquire", this, client -> client.acquires.sum(),
+                        client -> client.acquireNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Espera por uma vaga no limite de requisições do cliente blocking")
+                .register(registry);
+        Gauge.builder("downstream.inflight", inFlight, AtomicInteger::get)
+                .description("Chamadas downstream blocking em andamento")
+                .register(registry);
+        FunctionCounter.builder("downstream.calls", blockingCalls, LongAdder::sum)
+                .description("Chamadas HTTP ao downstream")
+                .tag("client", "blocking")
+                .register(registry);
+        FunctionCounter.builder("downstream.calls", reactiveCalls, LongAdder::sum)
+                .description("Chamadas HTTP ao downstream")
+                .tag("client", "reactive")
+                .register(registry);
+        FunctionCounter.builder("downstream.rejected", rejected, LongAdder::sum)
+                .description("Chamadas que não conseguiram conexão dentro de pending-acquire-timeout")
+                .register(registry);
+        FunctionCounter.builder("downstream.errors", errors, LongAdder::sum)
+                .description("Chamadas downstream que falharam")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+        }
+        if (stub != null) {
+            stub.close();
+        }
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (httpClientExecutor != null) {
+            httpClientExecutor.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.renata.fraga.java_virtual_threads_sample.downstream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Serviço HTTP downstream simulado, no mesmo processo mas em uma porta local
+ * e com event loops próprios: GET /persons/{index}?call=QUICK responde o JSON
+ * da pessoa depois da latência sorteada pelo PersonBackend (sem ocupar
+ * thread). Aceita HTTP/1.1 e HTTP/2 em texto claro (h2c, por upgrade ou
+ * prior knowledge), para comparar pools de conexões e multiplexação.
+ */
+public class StubDownstreamServer implements AutoCloseable {
+
+    private final PersonBackend backend;
+    private final ObjectMapper objectMapper;
+    private final IntFunction<Person> generator;
+    private final LoopResources loops;
+    private final DisposableServer server;
+
+    public StubDownstreamServer(PersonBackend backend, ObjectMapper objectMapper, IntFunction<Person> generator,
+            int port) {
+        this.backend = backend;
+        this.objectMapper = objectMapper;
+        this.generator = generator;
+        this.loops = LoopResources.create("downstream-stub", 2, true);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(port)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .runOn(loops)
+                .route(routes -> routes.get("/persons/{index}", this::person))
+                .bindNow();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    private Publisher<Void> person(HttpServerRequest request, HttpServerResponse response) {
+        int index;
+        Call call;
+        try {
+            index = Integer.parseInt(request.param("index"));
+            call = Call.valueOf(new QueryStringDecoder(request.uri()).parameters()
+                    .getOrDefault("call", List.of(Call.QUICK.name())).get(0));
+        } catch (IllegalArgumentException e) {
+            return response.status(HttpResponseStatus.BAD_REQUEST).send();
+        }
+        return Mono.delay(backend.sampleLatency(call))
+                .then(Mono.defer(() -> response.header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .sendByteArray(Mono.fromSupplier(() -> encode(generator.apply(index))))
+                        .then()));
+    }
+
+    private byte[] encode(Person person) {
+        try {
+            return objectMapper.writeValueAsBytes(person);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.dispose();
+    }
+}
@@ -0,0 +1,12 @@
+package edu.renata.fraga.java_virtual_threads_sample.model;
+
+/**
+ * Pessoa com o resultado da etapa de enriquecimento CPU-bound: score,
+ * fingerprint (hash iterado) e validação dos campos
+ */
+public record EnrichedPerson(
+        Person person,
+        int score,
+        String fingerprint,
+        boolean valid) {
+}
@@ -0,0 +1,16 @@
+package edu.renata.fraga.java_virtual_threads_sample.model;
+
+import java.util.List;
+
+/**
+ * Uma página da listagem por cursor. nextCursor é nulo na última página.
+ */
+public record PersonPage(
+        List<Person> persons,
+        int limit,
+        String nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,36 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers por abordagem (mvc-blocking, webflux-parallel, ...), permitindo
+ * comparar os profiles a partir de um único scrape do Prometheus
+ */
+@Component
+public class ApproachMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ApproachMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void record(String approach, long elapsedMillis) {
+        timers.computeIfAbsent(approach, this::timer).record(elapsedMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private Timer timer(String approach) {
+        return Timer.builder("persons.request")
+                .description("Tempo de execução dos endpoints de pessoas por abordagem")
+                .tag("approach", approach)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,118 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Associa threads ao endpoint que estão atendendo, para que eventos JFR
+ * (processados alguns instantes depois) possam ser atribuídos a um endpoint.
+ * Cada thread guarda o último intervalo [início, fim] em que atendeu um
+ * endpoint; eventos fora desse intervalo ficam sem atribuição.
+ *
+ * Só fica ativa enquanto o VirtualThreadEventRecorder está lendo o stream
+ * JFR: é ele que remove os intervalos encerrados, então sem stream bind() não
+ * registra nada (cada Virtual Thread tem um id novo e o mapa cresceria sem
+ * limite).
+ */
+public final class EndpointAttribution {
+
+    private static final String SCHEDULE_HOOK = "endpoint-attribution";
+    private static final Map<Long, Binding> BINDINGS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+
+    private EndpointAttribution() {
+    }
+
+    /**
+     * Intervalo em que uma thread atendeu um endpoint (end == null: em andamento)
+     */
+    public record Binding(String endpoint, Instant start, Instant end) {
+
+        boolean covers(Instant instant) {
+            return !instant.isBefore(start) && (end == null || !instant.isAfter(end));
+        }
+    }
+
+    /**
+     * Escopo de uma associação - fechar encerra o intervalo
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Chamado quando o stream JFR começa - a partir daqui os schedulers do
+     * Reactor também propagam o endpoint
+     */
+    static void enable() {
+        enabled = true;
+        Schedulers.onScheduleHook(SCHEDULE_HOOK, EndpointAttribution::wrap);
+    }
+
+    static void disable() {
+        enabled = false;
+        Schedulers.resetOnScheduleHook(SCHEDULE_HOOK);
+        BINDINGS.clear();
+    }
+
+    public static Scope bind(String endpoint) {
+        if (!enabled || endpoint == null) {
+            return () -> {
+            };
+        }
+        long threadId = Thread.currentThread().threadId();
+        Binding previous = BINDINGS.get(threadId);
+        Binding binding = new Binding(endpoint, Instant.now(), null);
+        BINDINGS.put(threadId, binding);
+        return () -> {
+            if (previous != null && previous.end() == null) {
+                // Escopo aninhado: volta para o endpoint externo
+                BINDINGS.put(threadId, previous);
+            } else {
+                BINDINGS.put(threadId, new Binding(endpoint, binding.start(), Instant.now()));
+            }
+        };
+    }
+
+    public static String current() {
+        Binding binding = BINDINGS.get(Thread.currentThread().threadId());
+        return binding != null && binding.end() == null ? binding.endpoint() : null;
+    }
+
+    /**
+     * Propaga o endpoint atual para uma tarefa executada em outra thread
+     */
+    public static Runnable wrap(Runnable task) {
+        String endpoint = current();
+        if (endpoint == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = bind(endpoint)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Endpoint que a thread atendia no instante do evento, ou null
+     */
+    public static String endpointAt(long threadId, Instant instant) {
+        Binding binding = BINDINGS.get(threadId);
+        return binding != null && binding.covers(instant) ? binding.endpoint() : null;
+    }
+
+    /**
+     * Remove intervalos encerrados há mais de maxAge (threads que não voltam a ser usadas)
+     */
+    public static void purge(Duration maxAge) {
+        Instant limit = Instant.now().minus(maxAge);
+        BINDINGS.values().removeIf(binding -> binding.end() != null && binding.end().isBefore(limit));
+    }
+}
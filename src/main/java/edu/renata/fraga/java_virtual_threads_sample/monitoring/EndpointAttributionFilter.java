@@ -0,0 +1,29 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Associa a thread do Tomcat ao endpoint da requisição. O executor de offload,
+ * o fan-out estruturado e os schedulers do Reactor propagam essa associação
+ * para as threads que executam o trabalho. Sem o stream JFR ativo o bind não
+ * registra nada.
+ */
+@Component
+public class EndpointAttributionFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (EndpointAttribution.Scope ignored = EndpointAttribution.bind(request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
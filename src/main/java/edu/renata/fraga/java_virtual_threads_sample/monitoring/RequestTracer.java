@@ -0,0 +1,211 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracing por elemento de baixo custo para os caminhos reativos: substitui o
+ * System.out.println (write síncrono no console, com lock) que serializava o
+ * stream nas threads do Netty/parallel.
+ * <p>
+ * Quem emite só grava um evento amostrado em um ring buffer lock-free
+ * (índice atômico + AtomicReferenceArray); nada de String.format nem I/O no
+ * caminho quente. Uma thread própria drena o buffer periodicamente para o log
+ * (nível DEBUG), e os eventos mais recentes ficam disponíveis no endpoint de
+ * diagnóstico. Se o dreno não acompanhar, os eventos mais antigos são
+ * sobrescritos e contados como descartados - o emissor nunca espera.
+ */
+@Component
+public class RequestTracer implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTracer.class);
+
+    /**
+     * Evento de um elemento emitido. sequence identifica a posição no ring
+     * buffer e detecta slots sobrescritos durante a leitura.
+     */
+    public record TraceEvent(
+            long sequence,
+            String stage,
+            long elementId,
+            String thread,
+            boolean virtual,
+            long epochMillis,
+            long nanoTime) {
+    }
+
+    private final boolean enabled;
+    private final int sampleEvery;
+    private final boolean logEvents;
+    private final Duration drainInterval;
+
+    private final AtomicReferenceArray<TraceEvent> ring;
+    private final AtomicLong writeIndex = new AtomicLong();
+    private final AtomicLong drainIndex = new AtomicLong();
+
+    private final LongAdder seen = new LongAdder();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder drained = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final Scheduler drainer;
+    private final Disposable drainTask;
+
+    public RequestTracer(
+            @Value("${demo.tracing.enabled:false}") boolean enabled,
+            @Value("${demo.tracing.sample-every:100}") int sampleEvery,
+            @Value("${demo.tracing.ring-buffer-size:4096}") int ringBufferSize,
+            @Value("${demo.tracing.log-events:true}") boolean logEvents,
+            @Value("${demo.tracing.drain-interval-ms:1000}") long drainIntervalMs) {
+        if (sampleEvery <= 0 || ringBufferSize <= 0) {
+            throw new IllegalArgumentException("demo.tracing.sample-every e ring-buffer-size devem ser positivos: "
+                    + sampleEvery + ", " + ringBufferSize);
+        }
+        this.enabled = enabled;
+        this.sampleEvery = sampleEvery;
+        this.logEvents = logEvents;
+        this.drainInterval = Duration.ofMillis(drainIntervalMs);
+        this.ring = new AtomicReferenceArray<>(ringBufferSize);
+        if (enabled) {
+            this.drainer = Schedulers.newSingle("trace-drain", true);
+            this.drainTask = drainer.schedulePeriodically(this::drain,
+                    drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.drainer = null;
+            this.drainTask = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registra (com amostragem) a emissão de um elemento na thread atual.
+     * Desligado, o custo é a leitura de um campo final.
+     */
+    public void trace(String stage, long elementId) {
+        if (!enabled) {
+            return;
+        }
+        seen.increment();
+        if (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        long sequence = writeIndex.getAndIncrement();
+        ring.set(slot(sequence), new TraceEvent(sequence, stage, elementId, thread.getName(), thread.isVirtual(),
+                System.currentTimeMillis(), System.nanoTime()));
+        recorded.increment();
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    /**
+     * Move os eventos ainda não drenados para o log - chamado pela thread de
+     * dreno (e pelos testes); nunca pelo emissor
+     */
+    void drain() {
+        long from = drainIndex.get();
+        long to = writeIndex.get();
+        if (to - from > ring.length()) {
+            // Sobrescritos antes do dreno
+            dropped.add(to - from - ring.length());
+            from = to - ring.length();
+        }
+        long sequence = from;
+        for (; sequence < to; sequence++) {
+            TraceEvent event = ring.get(slot(sequence));
+            if (event == null || event.sequence() < sequence) {
+                // Slot reservado mas ainda não escrito: continua no próximo dreno
+                break;
+            }
+            if (event.sequence() > sequence) {
+                // Já sobrescrito por um evento mais novo
+                dropped.increment();
+                continue;
+            }
+            if (logEvents && log.isDebugEnabled()) {
+                log.debug("trace stage={} id={} thread={} virtual={} at={}",
+                        event.stage(), event.elementId(), event.thread(), event.virtual(), event.epochMillis());
+            }
+            drained.increment();
+        }
+        drainIndex.set(sequence);
+    }
+
+    /**
+     * Eventos mais recentes do ring buffer, do mais novo para o mais antigo
+     */
+    public List<TraceEvent> recentEvents(int limit) {
+        long last = writeIndex.get();
+        int size = ring.length();
+        List<TraceEvent> events = new ArrayList<>(Math.min(limit, size));
+        for (long sequence = last - 1; sequence >= 0 && sequence >= last - size && events.size() < limit; sequence--) {
+            TraceEvent event = ring.get(slot(sequence));
+            if (event != null && event.sequence() == sequence) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Configuração, contadores e eventos recentes para o endpoint de diagnóstico
+     */
+    public Map<String, Object> snapshot(int recent) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("sampleEvery", sampleEvery);
+        snapshot.put("ringBufferSize", ring.length());
+        snapshot.put("drainIntervalMs", drainInterval.toMillis());
+        snapshot.put("seen", seen.sum());
+        snapshot.put("recorded", recorded.sum());
+        snapshot.put("drained", drained.sum());
+        snapshot.put("dropped", dropped.sum());
+        snapshot.put("recentEvents", recentEvents(recent));
+        return snapshot;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("trace.events.recorded", recorded, LongAdder::sum)
+                .description("Eventos de elementos amostrados no ring buffer de tracing")
+                .register(registry);
+        FunctionCounter.builder("trace.events.dropped", dropped, LongAdder::sum)
+                .description("Eventos sobrescritos antes do dreno do ring buffer")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (drainer != null) {
+            drainTask.dispose();
+            drain();
+            drainer.dispose();
+        }
+    }
+}
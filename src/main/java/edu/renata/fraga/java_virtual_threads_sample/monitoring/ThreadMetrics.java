@@ -0,0 +1,151 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gauges de Virtual Threads, carrier threads e schedulers do Reactor.
+ * Tomcat (tomcat.threads.busy) e ThreadPoolTaskExecutor (executor.queued)
+ * são publicados pelo Spring Boot Actuator; o executor de offload publica
+ * offload.executor.*.
+ *
+ * Os contadores de tarefas de todos os schedulers do Reactor dependem de um
+ * onScheduleHook global, que envolve cada tarefa agendada - desligado por
+ * padrão (demo.metrics.scheduler-hook) para não pesar nos pipelines reativos
+ * comparados nos benchmarks.
+ */
+@Component
+public class ThreadMetrics implements MeterBinder {
+
+    private static final String SCHEDULE_HOOK = "thread-metrics";
+
+    private final Scheduler blockingScheduler;
+    private final VirtualThreadEventRecorder eventRecorder;
+    private final boolean scheduleHook;
+
+    private final AtomicInteger activeScheduledTasks = new AtomicInteger();
+    private final LongAdder completedScheduledTasks = new LongAdder();
+
+    public ThreadMetrics(Scheduler blockingScheduler, VirtualThreadEventRecorder eventRecorder,
+            @Value("${demo.metrics.scheduler-hook:false}") boolean scheduleHook) {
+        this.blockingScheduler = blockingScheduler;
+        this.eventRecorder = eventRecorder;
+        this.scheduleHook = scheduleHook;
+        if (!scheduleHook) {
+            return;
+        }
+        Schedulers.onScheduleHook(SCHEDULE_HOOK, task -> () -> {
+            activeScheduledTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeScheduledTasks.decrementAndGet();
+                completedScheduledTasks.increment();
+            }
+        });
+    }
+
+    @PreDestroy
+    void resetScheduleHook() {
+        if (scheduleHook) {
+            Schedulers.resetOnScheduleHook(SCHEDULE_HOOK);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("jvm.threads.virtual.live", VirtualThreads::live)
+                .description("Virtual Threads da aplicação em execução")
+                .register(registry);
+        FunctionCounter.builder("jvm.threads.virtual.started", this, metrics -> VirtualThreads.started())
+                .description("Virtual Threads da aplicação criadas desde o start")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.carrier.parallelism", VirtualThreads::carrierParallelism)
+                .description("Carrier threads disponíveis para Virtual Threads")
+                .register(registry);
+        FunctionCounter.builder("jvm.threads.virtual.pinned", eventRecorder,
+                        VirtualThreadEventRecorder::getPinnedEvents)
+                .description("Eventos JFR jdk.VirtualThreadPinned")
+                .register(registry);
+        FunctionCounter.builder("jvm.threads.virtual.submit.failed", eventRecorder,
+                        VirtualThreadEventRecorder::getSubmitFailedEvents)
+                .description("Eventos JFR jdk.VirtualThreadSubmitFailed")
+                .register(registry);
+
+        bindScheduler(registry, "blocking", blockingScheduler);
+        bindScheduler(registry, "parallel", Schedulers.parallel());
+        if (!scheduleHook) {
+            return;
+        }
+        Gauge.builder("reactor.scheduler.tasks.active", activeScheduledTasks, AtomicInteger::get)
+                .description("Tarefas em execução em qualquer scheduler do Reactor")
+                .register(registry);
+        FunctionCounter.builder("reactor.scheduler.tasks.completed", completedScheduledTasks, LongAdder::sum)
+                .description("Tarefas concluídas em qualquer scheduler do Reactor")
+                .register(registry);
+    }
+
+    private void bindScheduler(MeterRegistry registry, String name, Scheduler scheduler) {
+        Gauge.builder("reactor.scheduler.buffered", scheduler, s -> scan(s, Scannable.Attr.BUFFERED))
+                .description("Tarefas enfileiradas no scheduler")
+                .tag("scheduler", name)
+                .register(registry);
+        Gauge.builder("reactor.scheduler.capacity", scheduler, s -> scan(s, Scannable.Attr.CAPACITY))
+                .description("Capacidade (threads) do scheduler")
+                .tag("scheduler", name)
+                .register(registry);
+    }
+
+    /**
+     * Resumo dos schedulers para os endpoints de thread-info
+     */
+    public Map<String, Object> schedulerSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("blocking", schedulerInfo(blockingScheduler));
+        snapshot.put("parallel", schedulerInfo(Schedulers.parallel()));
+        if (scheduleHook) {
+            snapshot.put("activeTasks", activeScheduledTasks.get());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Resumo de Virtual Threads para os endpoints de thread-info
+     */
+    public Map<String, Object> virtualThreadSnapshot() {
+        return Map.of(
+                "live", VirtualThreads.live(),
+                "started", VirtualThreads.started(),
+                "carrierParallelism", VirtualThreads.carrierParallelism(),
+                "pinnedEvents", eventRecorder.getPinnedEvents(),
+                "jfrRecording", eventRecorder.isRecording());
+    }
+
+    private static Map<String, Object> schedulerInfo(Scheduler scheduler) {
+        Scannable scannable = Scannable.from(scheduler);
+        String name = scannable.scan(Scannable.Attr.NAME);
+        return Map.of(
+                "name", name != null ? name : scheduler.toString(),
+                "buffered", scan(scheduler, Scannable.Attr.BUFFERED),
+                "capacity", scan(scheduler, Scannable.Attr.CAPACITY));
+    }
+
+    private static double scan(Scheduler scheduler, Scannable.Attr<Integer> attr) {
+        Integer value = Scannable.from(scheduler).scan(attr);
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,286 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Assina eventos JFR de Virtual Threads enquanto a aplicação roda e agrega
+ * por endpoint e stack trace:
+ * <ul>
+ * <li>jdk.VirtualThreadPinned - virtual thread presa à carrier durante um park</li>
+ * <li>jdk.VirtualThreadSubmitFailed - carrier pool não aceitou a continuação</li>
+ * <li>jdk.ThreadPark - park longo de uma thread atendendo um endpoint</li>
+ * </ul>
+ * Os eventos mais recentes ficam em um ring buffer em memória. Desligado por
+ * padrão (demo.jfr.enabled): só para diagnóstico, fora das medições.
+ */
+@Component
+public class VirtualThreadEventRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadEventRecorder.class);
+
+    static final String PINNED = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    static final String PARK = "jdk.ThreadPark";
+
+    private static final String UNATTRIBUTED = "(sem endpoint)";
+    private static final int MAX_FRAMES = 8;
+    private static final int MAX_SITES = 1_000;
+    private static final Duration ATTRIBUTION_RETENTION = Duration.ofSeconds(30);
+
+    /**
+     * Evento individual guardado no ring buffer
+     */
+    public record Event(
+            String type,
+            Instant timestamp,
+            long durationMicros,
+            String endpoint,
+            String thread,
+            boolean virtual,
+            List<String> stackTrace) {
+    }
+
+    /**
+     * Estatísticas agregadas de um par (tipo, endpoint, stack trace)
+     */
+    public static final class Site {
+        private final String type;
+        private final String endpoint;
+        private final List<String> stackTrace;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        Site(String type, String endpoint, List<String> stackTrace) {
+            this.type = type;
+            this.endpoint = endpoint;
+            this.stackTrace = stackTrace;
+        }
+
+        void record(long durationMicros) {
+            count.increment();
+            totalMicros.add(durationMicros);
+            maxMicros.accumulateAndGet(durationMicros, Math::max);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        Map<String, Object> snapshot() {
+            long events = count.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("type", type);
+            snapshot.put("endpoint", endpoint);
+            snapshot.put("count", events);
+            snapshot.put("totalMs", totalMicros.sum() / 1_000.0);
+            snapshot.put("avgMs", events == 0 ? 0 : totalMicros.sum() / 1_000.0 / events);
+            snapshot.put("maxMs", maxMicros.get() / 1_000.0);
+            snapshot.put("stackTrace", stackTrace);
+            return snapshot;
+        }
+    }
+
+    private final boolean enabled;
+    private final Duration pinnedThreshold;
+    private final Duration parkThreshold;
+
+    private final Map<String, LongAdder> eventsByType = new ConcurrentHashMap<>();
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Event> recentEvents;
+    private final AtomicLong recentIndex = new AtomicLong();
+
+    private RecordingStream stream;
+
+    public VirtualThreadEventRecorder(
+            @Value("${demo.jfr.enabled:false}") boolean enabled,
+            @Value("${demo.jfr.pinned-threshold-ms:20}") long pinnedThresholdMs,
+            @Value("${demo.jfr.park-threshold-ms:50}") long parkThresholdMs,
+            @Value("${demo.jfr.ring-buffer-size:512}") int ringBufferSize) {
+        if (ringBufferSize <= 0) {
+            throw new IllegalArgumentException("demo.jfr.ring-buffer-size deve ser positivo: " + ringBufferSize);
+        }
+        this.enabled = enabled;
+        this.pinnedThreshold = Duration.ofMillis(pinnedThresholdMs);
+        this.parkThreshold = Duration.ofMillis(parkThresholdMs);
+        this.recentEvents = new AtomicReferenceArray<>(ringBufferSize);
+        for (String type : List.of(PINNED, SUBMIT_FAILED, PARK)) {
+            eventsByType.put(type, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED).withThreshold(pinnedThreshold).withStackTrace();
+            stream.enable(SUBMIT_FAILED).withStackTrace();
+            stream.enable(PARK).withThreshold(parkThreshold).withStackTrace();
+            stream.onEvent(PINNED, this::onEvent);
+            stream.onEvent(SUBMIT_FAILED, this::onEvent);
+            stream.onEvent(PARK, this::onEvent);
+            stream.onFlush(() -> EndpointAttribution.purge(ATTRIBUTION_RETENTION));
+            stream.startAsync();
+            EndpointAttribution.enable();
+        } catch (RuntimeException e) {
+            log.warn("JFR indisponível, eventos de Virtual Threads não serão coletados: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            EndpointAttribution.disable();
+            stream.close();
+        }
+    }
+
+    private void onEvent(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        RecordedThread thread = event.getThread();
+        String endpoint = thread != null
+                ? EndpointAttribution.endpointAt(thread.getJavaThreadId(), event.getStartTime())
+                : null;
+        if (PARK.equals(type) && endpoint == null) {
+            // Park fora de uma requisição (pools ociosos) é só ruído
+            return;
+        }
+        endpoint = endpoint != null ? endpoint : UNATTRIBUTED;
+
+        long durationMicros = event.getDuration().toNanos() / 1_000;
+        List<String> stackTrace = frames(event.getStackTrace());
+
+        eventsByType.get(type).increment();
+        site(type, endpoint, stackTrace).record(durationMicros);
+
+        Event recorded = new Event(
+                type,
+                event.getStartTime(),
+                durationMicros,
+                endpoint,
+                thread != null ? thread.getJavaName() : null,
+                thread != null && thread.isVirtual(),
+                stackTrace);
+        recentEvents.set((int) (recentIndex.getAndIncrement() % recentEvents.length()), recorded);
+    }
+
+    private Site site(String type, String endpoint, List<String> stackTrace) {
+        String key = type + '|' + endpoint + '|' + String.join("|", stackTrace);
+        Site site = sites.get(key);
+        if (site != null) {
+            return site;
+        }
+        if (sites.size() >= MAX_SITES) {
+            // Limita a memória: sites novos além do limite são agregados juntos
+            return sites.computeIfAbsent(type + "|overflow", k -> new Site(type, "(overflow)", List.of()));
+        }
+        return sites.computeIfAbsent(key, k -> new Site(type, endpoint, stackTrace));
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        List<String> frames = new ArrayList<>(MAX_FRAMES);
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frames.size() == MAX_FRAMES) {
+                break;
+            }
+            frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                    + ":" + frame.getLineNumber());
+        }
+        return List.copyOf(frames);
+    }
+
+    public boolean isRecording() {
+        return stream != null;
+    }
+
+    public long getPinnedEvents() {
+        return eventsByType.get(PINNED).sum();
+    }
+
+    public long getSubmitFailedEvents() {
+        return eventsByType.get(SUBMIT_FAILED).sum();
+    }
+
+    /**
+     * Resumo para o endpoint de diagnóstico: totais por tipo e por endpoint,
+     * sites mais frequentes e os eventos mais recentes
+     */
+    public Map<String, Object> summary(int topSites, int recent) {
+        Map<String, Long> byType = eventsByType.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+
+        Map<String, Long> byEndpoint = sites.values().stream()
+                .collect(Collectors.groupingBy(site -> site.endpoint, Collectors.summingLong(Site::count)));
+
+        List<Map<String, Object>> topSiteSnapshots = sites.values().stream()
+                .sorted(Comparator.comparingLong(Site::count).reversed())
+                .limit(topSites)
+                .map(Site::snapshot)
+                .toList();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("recording", isRecording());
+        summary.put("thresholds", Map.of(
+                PINNED, pinnedThreshold.toMillis() + "ms",
+                PARK, parkThreshold.toMillis() + "ms"));
+        summary.put("eventsByType", byType);
+        summary.put("eventsByEndpoint", byEndpoint);
+        summary.put("topSites", topSiteSnapshots);
+        summary.put("recentEvents", recentEvents(recent));
+        return summary;
+    }
+
+    private List<Event> recentEvents(int limit) {
+        long last = recentIndex.get();
+        int size = recentEvents.length();
+        List<Event> events = new ArrayList<>();
+        for (long i = last - 1; i >= 0 && i >= last - size && events.size() < limit; i--) {
+            Event event = recentEvents.get((int) (i % size));
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Limpa os agregados (ex: entre rodadas de benchmark)
+     */
+    public void reset() {
+        sites.clear();
+        eventsByType.values().forEach(LongAdder::reset);
+        for (int i = 0; i < recentEvents.length(); i++) {
+            recentEvents.set(i, null);
+        }
+    }
+}
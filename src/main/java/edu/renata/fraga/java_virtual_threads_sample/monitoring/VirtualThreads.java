@@ -0,0 +1,58 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fábrica das Virtual Threads criadas pela aplicação (Tomcat, executores,
+ * schedulers, fan-out). Dá nome às threads e mantém a contagem de virtual
+ * threads vivas, que o JDK 21 não expõe diretamente.
+ */
+public final class VirtualThreads {
+
+    private static final AtomicInteger LIVE = new AtomicInteger();
+    private static final LongAdder STARTED = new LongAdder();
+
+    private VirtualThreads() {
+    }
+
+    public static ThreadFactory factory(String prefix) {
+        ThreadFactory delegate = Thread.ofVirtual().name(prefix, 0).factory();
+        return task -> delegate.newThread(() -> {
+            LIVE.incrementAndGet();
+            STARTED.increment();
+            try {
+                task.run();
+            } finally {
+                LIVE.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Equivalente a Executors.newVirtualThreadPerTaskExecutor() com threads
+     * nomeadas e contabilizadas
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(factory(prefix));
+    }
+
+    public static int live() {
+        return LIVE.get();
+    }
+
+    public static long started() {
+        return STARTED.sum();
+    }
+
+    /**
+     * Número de carrier threads do scheduler de Virtual Threads
+     */
+    public static int carrierParallelism() {
+        String parallelism = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return parallelism != null ? Integer.parseInt(parallelism) : Runtime.getRuntime().availableProcessors();
+    }
+}
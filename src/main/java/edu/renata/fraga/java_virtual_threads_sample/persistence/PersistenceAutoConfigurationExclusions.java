@@ -0,0 +1,42 @@
+package edu.renata.fraga.java_virtual_threads_sample.persistence;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fora do modo de persistência (demo.persistence.enabled=false) exclui as
+ * auto-configurações de DataSource e ConnectionFactory: nenhum pool Hikari ou
+ * r2dbc-pool, health check ou métrica de pool nos profiles de comparação. As
+ * auto-configurações que dependem desses beans (transação, JdbcTemplate,
+ * Spring Data R2DBC, health, métricas) ficam desligadas pelas próprias
+ * condições.
+ */
+public class PersistenceAutoConfigurationExclusions implements EnvironmentPostProcessor {
+
+    static final String ENABLED_PROPERTY = "demo.persistence.enabled";
+
+    private static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+    private static final Set<String> EXCLUDED = Set.of(
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)) {
+            return;
+        }
+        // Mantém exclusões já configuradas pelo usuário
+        Set<String> exclusions = new LinkedHashSet<>(StringUtils.commaDelimitedListToSet(
+                environment.getProperty(EXCLUDE_PROPERTY, "")));
+        exclusions.addAll(EXCLUDED);
+        environment.getPropertySources().addFirst(new MapPropertySource("demoPersistenceExclusions",
+                Map.of(EXCLUDE_PROPERTY, String.join(",", exclusions))));
+    }
+}
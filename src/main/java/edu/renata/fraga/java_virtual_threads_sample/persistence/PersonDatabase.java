@@ -0,0 +1,350 @@
+package edu.renata.fraga.java_virtual_threads_sample.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendUnavailableException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BulkheadFullException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Modo de persistência do PersonService (demo.persistence.enabled): as
+ * pessoas vêm de um H2 em memória em vez de serem geradas após um sleep.
+ * O caminho blocking usa JDBC sobre o HikariCP (MVC, Virtual Threads); o
+ * reativo usa R2DBC sobre o r2dbc-pool (WebFlux). Os dois apontam para o
+ * mesmo banco (spring.datasource.url / spring.r2dbc.url).
+ * <p>
+ * Cada busca segura a conexão do pool durante a latência do PersonBackend
+ * (a ida e volta de rede que um banco real teria) e executa a consulta no
+ * driver - com os locks internos do H2, que em Java 21 prendem a Virtual
+ * Thread à carrier. Assim o benchmark passa a medir disputa por conexões
+ * e pinning, não só a espera.
+ * <p>
+ * Sem conexão livre no tempo de espera do pool (Hikari connection-timeout,
+ * r2dbc-pool max-acquire-time) a busca falha com BulkheadFullException (503),
+ * como no bulkhead do backend; os demais erros do driver viram
+ * BackendUnavailableException (502).
+ * <p>
+ * O r2dbc-h2 executa o H2 embarcado na thread que assina: a consulta em si é
+ * CPU (microssegundos), mas não é I/O non-blocking de verdade como em um
+ * driver R2DBC de rede.
+ */
+@Component
+public class PersonDatabase implements MeterBinder {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS person (
+                id BIGINT PRIMARY KEY,
+                name VARCHAR(64) NOT NULL,
+                email VARCHAR(128) NOT NULL,
+                age INT NOT NULL,
+                city VARCHAR(64) NOT NULL)""";
+    private static final String UPSERT = "MERGE INTO person (id, name, email, age, city) KEY (id) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_JDBC = "SELECT name, email, age, city FROM person WHERE id = ?";
+    private static final String SELECT_R2DBC = "SELECT name, email, age, city FROM person WHERE id = $1";
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    /**
+     * Ciclo do PersonService.createPerson: nomes (20), cidades (15) e idades
+     * (50) se repetem juntos a cada mmc(20, 15, 50) = 300 índices. Com rows
+     * múltiplo do ciclo, a linha index % rows tem os mesmos dados que
+     * createPerson(index) geraria nos outros modos.
+     */
+    static final int ROW_CYCLE = 300;
+
+    private final PersonBackend backend;
+    private final DataSource dataSource;
+    private final ConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final int rows;
+
+    private final DriverStats jdbc = new DriverStats();
+    private final DriverStats r2dbc = new DriverStats();
+
+    /**
+     * DataSource e ConnectionFactory só existem no modo de persistência
+     * (ver {@link PersistenceAutoConfigurationExclusions})
+     */
+    @Autowired
+    public PersonDatabase(
+            PersonBackend backend,
+            ObjectProvider<DataSource> dataSource,
+            ObjectProvider<ConnectionFactory> connectionFactory,
+            @Value("${demo.persistence.enabled:false}") boolean enabled,
+            @Value("${demo.persistence.rows:12000}") int rows) {
+        this(backend,
+                enabled ? dataSource.getObject() : null,
+                enabled ? connectionFactory.getObject() : null,
+                enabled,
+                rows);
+    }
+
+    PersonDatabase(
+            PersonBackend backend,
+            DataSource dataSource,
+            ConnectionFactory connectionFactory,
+            boolean enabled,
+            int rows) {
+        if (rows <= 0 || rows % ROW_CYCLE != 0) {
+            throw new IllegalArgumentException("demo.persistence.rows deve ser um múltiplo positivo de "
+                    + ROW_CYCLE + ": " + rows);
+        }
+        this.backend = backend;
+        this.dataSource = dataSource;
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.rows = rows;
+    }
+
+    /**
+     * Quando desabilitado o PersonService mantém o backend simulado
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cria a tabela e grava as pessoas geradas (idempotente)
+     */
+    public void seed(IntFunction<Person> generator) {
+        try (java.sql.Connection connection = dataSource.getConnection();
+             Statement ddl = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(UPSERT)) {
+            ddl.execute(CREATE_TABLE);
+            for (int index = 0; index < rows; index++) {
+                Person person = generator.apply(index);
+                insert.setLong(1, person.id());
+                insert.setString(2, person.name());
+                insert.setString(3, person.email());
+                insert.setInt(4, person.age());
+                insert.setString(5, person.city());
+                insert.addBatch();
+                if ((index + 1) % SEED_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        } catch (SQLException e) {
+            throw new BackendUnavailableException("Falha ao popular o banco de pessoas", e);
+        }
+    }
+
+    /**
+     * Ids acima de demo.persistence.rows reaproveitam a linha index % rows -
+     * mesmos dados, já que rows é múltiplo de {@link #ROW_CYCLE}
+     */
+    private long rowId(int index) {
+        return index % rows;
+    }
+
+    /**
+     * Busca blocking via JDBC: a thread (virtual ou de plataforma) espera a
+     * conexão do Hikari e a segura durante a latência e a consulta
+     */
+    public Person find(Call call, int index) {
+        long start = System.nanoTime();
+        try (java.sql.Connection connection = dataSource.getConnection()) {
+            jdbc.recordAcquire(System.nanoTime() - start);
+            backend.fetch(call);
+            try (PreparedStatement select = connection.prepareStatement(SELECT_JDBC)) {
+                select.setLong(1, rowId(index));
+                try (ResultSet resultSet = select.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new BackendUnavailableException("Pessoa " + index + " não encontrada no banco", null);
+                    }
+                    Person person = Person.create(index, resultSet.getString(1), resultSet.getString(2),
+                            resultSet.getInt(3), resultSet.getString(4));
+                    jdbc.recordQuery(System.nanoTime() - start);
+                    return person;
+                }
+            }
+        } catch (SQLTransientConnectionException e) {
+            // Hikari: nenhuma conexão liberada dentro do connection-timeout
+            jdbc.errors.increment();
+            throw new BulkheadFullException("Pool JDBC sem conexão livre: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            jdbc.errors.increment();
+            throw new BackendUnavailableException("Falha na consulta JDBC: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Busca non-blocking via R2DBC: nenhuma thread espera pela conexão nem
+     * pela latência
+     */
+    public Mono<Person> findReactive(int index) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.usingWhen(
+                    Mono.from(connectionFactory.create())
+                            .onErrorMap(PersonDatabase::isAcquireTimeout, error -> new BulkheadFullException(
+                                    "Pool R2DBC sem conexão livre: " + error.getMessage(), error))
+                            .doOnNext(connection -> r2dbc.recordAcquire(System.nanoTime() - start)),
+                    connection -> backend.fetchReactive(Call.REACTIVE)
+                            .then(select(connection, index))
+                            .doOnNext(person -> r2dbc.recordQuery(System.nanoTime() - start)),
+                    Connection::close);
+        })
+                .onErrorMap(R2dbcException.class,
+                        error -> new BackendUnavailableException("Falha na consulta R2DBC: " + error.getMessage(), error))
+                .doOnError(error -> r2dbc.errors.increment());
+    }
+
+    /**
+     * r2dbc-pool: nenhuma conexão liberada dentro do max-acquire-time
+     * (R2dbcTimeoutException, ou o TimeoutException do Reactor sem o wrapper)
+     */
+    private static boolean isAcquireTimeout(Throwable error) {
+        return error instanceof R2dbcTimeoutException || error instanceof TimeoutException;
+    }
+
+    private Mono<Person> select(Connection connection, int index) {
+        return Flux.from(connection.createStatement(SELECT_R2DBC).bind(0, rowId(index)).execute())
+                .flatMap(result -> result.map((row, metadata) -> Person.create(index,
+                        row.get("name", String.class),
+                        row.get("email", String.class),
+                        row.get("age", Integer.class),
+                        row.get("city", String.class))))
+                .next()
+                .switchIfEmpty(Mono.error(() ->
+                        new BackendUnavailableException("Pessoa " + index + " não encontrada no banco", null)));
+    }
+
+    /**
+     * Espera por conexão e tempo total de busca por driver, com o estado
+     * atual de cada pool - onde cada profile satura
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("rows", rows);
+        Map<String, Object> jdbcSnapshot = jdbc.snapshot();
+        jdbcSnapshot.put("pool", hikariPool());
+        snapshot.put("jdbc", jdbcSnapshot);
+        Map<String, Object> r2dbcSnapshot = r2dbc.snapshot();
+        r2dbcSnapshot.put("pool", r2dbcPool());
+        snapshot.put("r2dbc", r2dbcSnapshot);
+        return snapshot;
+    }
+
+    private Map<String, Object> hikariPool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        if (dataSource instanceof HikariDataSource hikari) {
+            pool.put("maxSize", hikari.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+            if (mxBean != null) {
+                pool.put("active", mxBean.getActiveConnections());
+                pool.put("idle", mxBean.getIdleConnections());
+                pool.put("total", mxBean.getTotalConnections());
+                pool.put("waiting", mxBean.getThreadsAwaitingConnection());
+            }
+        }
+        return pool;
+    }
+
+    private Map<String, Object> r2dbcPool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        if (connectionFactory instanceof ConnectionPool connectionPool) {
+            connectionPool.getMetrics().ifPresent(metrics -> {
+                pool.put("maxSize", metrics.getMaxAllocatedSize());
+                pool.put("acquired", metrics.acquiredSize());
+                pool.put("idle", metrics.idleSize());
+                pool.put("allocated", metrics.allocatedSize());
+                pool.put("pending", metrics.pendingAcquireSize());
+            });
+        }
+        return pool;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        // Tamanho e fila dos pools: hikaricp.connections.* e r2dbc.pool.* (auto-configurados pelo Boot)
+        jdbc.bindTo(registry, "jdbc");
+        r2dbc.bindTo(registry, "r2dbc");
+    }
+
+    /**
+     * Contadores de um driver - LongAdder/AtomicLong, sem lock no caminho da busca
+     */
+    private static final class DriverStats {
+
+        private final LongAdder acquires = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final LongAdder queries = new LongAdder();
+        private final LongAdder queryNanos = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void recordAcquire(long nanos) {
+            acquires.increment();
+            acquireNanos.add(nanos);
+            maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void recordQuery(long nanos) {
+            queries.increment();
+            queryNanos.add(nanos);
+        }
+
+        Map<String, Object> snapshot() {
+            long acquireCount = acquires.sum();
+            long queryCount = queries.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("acquires", acquireCount);
+            snapshot.put("avgAcquireMs", acquireCount == 0 ? 0 : acquireNanos.sum() / 1e6 / acquireCount);
+            snapshot.put("maxAcquireMs", maxAcquireNanos.get() / 1e6);
+            snapshot.put("queries", queryCount);
+            snapshot.put("avgQueryMs", queryCount == 0 ? 0 : queryNanos.sum() / 1e6 / queryCount);
+            snapshot.put("errors", errors.sum());
+            return snapshot;
+        }
+
+        void bindTo(MeterRegistry registry, String driver) {
+            FunctionTimer.builder("person.db.acquire", this, stats -> stats.acquires.sum(),
+                            stats -> stats.acquireNanos.sum(), TimeUnit.NANOSECONDS)
+                    .description("Espera por uma conexão do pool")
+                    .tag("driver", driver)
+                    .register(registry);
+            FunctionTimer.builder("person.db.lookup", this, stats -> stats.queries.sum(),
+                            stats -> stats.queryNanos.sum(), TimeUnit.NANOSECONDS)
+                    .description("Busca completa de uma pessoa (espera + latência + consulta)")
+                    .tag("driver", driver)
+                    .register(registry);
+            FunctionCounter.builder("person.db.errors", errors, LongAdder::sum)
+                    .description("Buscas de pessoas que falharam no banco")
+                    .tag("driver", driver)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package edu.renata.fraga.java_virtual_threads_sample.persistence;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.service.InvalidPersonRequestException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Pessoas pré-geradas em um arquivo binário de registros de largura fixa,
+ * mapeado em memória (FileChannel.map) - os dados ficam no page cache do
+ * sistema operacional, fora do heap, e o dataset pode ser maior que o heap.
+ * <p>
+ * Os endpoints de store leem os registros direto do mapeamento e escrevem o
+ * JSON em blocos de 64 KiB: nenhum Person, String ou Map por pessoa. No
+ * {@link #writeJsonArray} um único bloco é reaproveitado pela resposta
+ * inteira; no {@link #jsonArray} cada bloco é um array novo, porque o
+ * DataBuffer emitido pertence ao servidor até ser escrito.
+ * {@link #read(long)} decodifica um registro sob demanda quando um Person é
+ * necessário.
+ * <p>
+ * Layout: cabeçalho de {@value #HEADER_BYTES} bytes (magic, versão, tamanho
+ * do registro, quantidade e fingerprint do gerador) seguido de registros de
+ * {@value #RECORD_BYTES} bytes: id (long), age (int) e name, email e city
+ * como UTF-8 prefixado pelo tamanho. Cada mapeamento cobre até 1 GiB (limite
+ * do MappedByteBuffer).
+ */
+@Component
+public class PersonStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonStore.class);
+
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 128;
+
+    private static final int MAGIC = 0x50535452; // "PSTR"
+    private static final int VERSION = 2;
+    // Registros iniciais que o fingerprint cobre - cobre os ciclos de nome, cidade e idade do gerador
+    private static final int FINGERPRINT_RECORDS = 64;
+
+    private static final int ID_OFFSET = 0;
+    private static final int AGE_OFFSET = 8;
+    private static final int NAME_OFFSET = 12;
+    private static final int NAME_MAX = 39;
+    private static final int EMAIL_OFFSET = NAME_OFFSET + 1 + NAME_MAX;
+    private static final int EMAIL_MAX = 47;
+    private static final int CITY_OFFSET = EMAIL_OFFSET + 1 + EMAIL_MAX;
+    private static final int CITY_MAX = RECORD_BYTES - CITY_OFFSET - 1;
+
+    private static final int RECORDS_PER_MAPPING = (1 << 30) / RECORD_BYTES;
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final int MAX_JSON_RECORD = 256;
+
+    private static final byte[] ID_FIELD = "{\"id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NAME_FIELD = ",\"name\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EMAIL_FIELD = "\",\"email\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] AGE_FIELD = "\",\"age\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CITY_FIELD = ",\"city\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RECORD_END = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final Path path;
+    private final long records;
+
+    private FileChannel channel;
+    private MappedByteBuffer[] mappings;
+    private boolean generated;
+    private long generationMs;
+
+    private final LongAdder streamedRecords = new LongAdder();
+    private final LongAdder decodedRecords = new LongAdder();
+
+    public PersonStore(
+            @Value("${demo.store.enabled:false}") boolean enabled,
+            @Value("${demo.store.path:${java.io.tmpdir}/java-virtual-threads-sample/persons.bin}") String path,
+            @Value("${demo.store.records:1000000}") long records) {
+        if (records <= 0) {
+            throw new IllegalArgumentException("demo.store.records deve ser positivo: " + records);
+        }
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.records = records;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long size() {
+        return records;
+    }
+
+    /**
+     * Reaproveita o arquivo existente quando o cabeçalho confere (inclusive o
+     * fingerprint do gerador atual); senão gera os registros (em um arquivo
+     * temporário, movido no fim) e mapeia
+     */
+    public void open(IntFunction<Person> generator) {
+        try {
+            long fingerprint = fingerprint(generator);
+            if (!isValid(fingerprint)) {
+                long start = System.nanoTime();
+                generate(generator, fingerprint);
+                generated = true;
+                generationMs = (System.nanoTime() - start) / 1_000_000;
+                log.info("PersonStore gerado: {} registros em {} ({} ms)", records, path, generationMs);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            int mappingCount = (int) ((records + RECORDS_PER_MAPPING - 1) / RECORDS_PER_MAPPING);
+            mappings = new MappedByteBuffer[mappingCount];
+            for (int i = 0; i < mappingCount; i++) {
+                long first = (long) i * RECORDS_PER_MAPPING;
+                long count = Math.min(RECORDS_PER_MAPPING, records - first);
+                mappings[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_BYTES + first * RECORD_BYTES, count * RECORD_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o PersonStore em " + path, e);
+        }
+    }
+
+    /**
+     * CRC32C dos primeiros registros codificados: um arquivo gerado por outra
+     * versão do gerador (nomes, cidades, e-mails) não é reaproveitado
+     */
+    private long fingerprint(IntFunction<Person> generator) {
+        int count = (int) Math.min(FINGERPRINT_RECORDS, records);
+        ByteBuffer buffer = ByteBuffer.allocate(count * RECORD_BYTES);
+        for (int index = 0; index < count; index++) {
+            encode(generator.apply(index), buffer);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.flip());
+        return crc.getValue();
+    }
+
+    private boolean isValid(long fingerprint) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) != HEADER_BYTES + records * RECORD_BYTES) {
+            return false;
+        }
+        try (FileChannel existing = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            existing.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                    && header.getInt(8) == RECORD_BYTES && header.getLong(12) == records
+                    && header.getLong(20) == fingerprint;
+        }
+    }
+
+    private void generate(IntFunction<Person> generator, long fingerprint) throws IOException {
+        if (records > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("demo.store.records acima do índice do gerador: " + records);
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 8192);
+            output.position(HEADER_BYTES);
+            for (int index = 0; index < records; index++) {
+                if (!buffer.hasRemaining()) {
+                    drain(buffer, output);
+                }
+                encode(generator.apply(index), buffer);
+            }
+            drain(buffer, output);
+
+            // Cabeçalho por último: um arquivo interrompido no meio nunca é válido
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putLong(records).putLong(fingerprint);
+            header.clear();
+            output.write(header, 0);
+            output.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel output) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void encode(Person person, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putLong(start + ID_OFFSET, person.id());
+        buffer.putInt(start + AGE_OFFSET, person.age());
+        putString(buffer, start + NAME_OFFSET, NAME_MAX, person.name());
+        putString(buffer, start + EMAIL_OFFSET, EMAIL_MAX, person.email());
+        putString(buffer, start + CITY_OFFSET, CITY_MAX, person.city());
+        buffer.position(start + RECORD_BYTES);
+    }
+
+    private static void putString(ByteBuffer buffer, int offset, int max, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > max) {
+            throw new IllegalArgumentException("Valor maior que o campo do PersonStore (" + max + " bytes): " + value);
+        }
+        for (byte b : bytes) {
+            // O JSON é escrito sem escape - o gerador só pode produzir texto seguro
+            if (b == '"' || b == '\\' || (b >= 0 && b < 0x20)) {
+                throw new IllegalArgumentException("Caractere que exige escape JSON: " + value);
+            }
+        }
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+
+    private ByteBuffer mapping(long index) {
+        return mappings[(int) (index / RECORDS_PER_MAPPING)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_MAPPING) * RECORD_BYTES;
+    }
+
+    /**
+     * Decodifica um registro sob demanda
+     */
+    public Person read(long index) {
+        checkRange(index, 1);
+        ByteBuffer mapping = mapping(index);
+        int offset = offset(index);
+        decodedRecords.increment();
+        return Person.create(
+                mapping.getLong(offset + ID_OFFSET),
+                getString(mapping, offset + NAME_OFFSET),
+                getString(mapping, offset + EMAIL_OFFSET),
+                mapping.getInt(offset + AGE_OFFSET),
+                getString(mapping, offset + CITY_OFFSET));
+    }
+
+    private static String getString(ByteBuffer mapping, int offset) {
+        byte[] bytes = new byte[mapping.get(offset)];
+        mapping.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Array JSON [start, start + count) escrito em blocos de 64 KiB - heap
+     * constante independente de count
+     */
+    public void writeJsonArray(long start, int count, OutputStream outputStream) throws IOException {
+        checkRange(start, count);
+        JsonChunk chunk = new JsonChunk();
+        chunk.put((byte) '[');
+        for (long index = start; index < start + count; index++) {
+            if (index > start) {
+                chunk.put((byte) ',');
+            }
+            renderRecord(index, chunk);
+            if (chunk.isFull()) {
+                outputStream.write(chunk.bytes, 0, chunk.length);
+                chunk.length = 0;
+            }
+        }
+        chunk.put((byte) ']');
+        outputStream.write(chunk.bytes, 0, chunk.length);
+        streamedRecords.add(count);
+    }
+
+    /**
+     * Mesmo array JSON como DataBuffers de até 64 KiB, gerados sob demanda
+     * (backpressure do servidor reativo)
+     */
+    public Flux<DataBuffer> jsonArray(long start, int count) {
+        checkRange(start, count);
+        long end = start + count;
+        return Flux.generate(() -> start, (next, sink) -> {
+            JsonChunk chunk = new JsonChunk();
+            if (next == start) {
+                chunk.put((byte) '[');
+            }
+            long index = next;
+            while (index < end && !chunk.isFull()) {
+                if (index > start) {
+                    chunk.put((byte) ',');
+                }
+                renderRecord(index++, chunk);
+            }
+            if (index == end) {
+                chunk.put((byte) ']');
+            }
+            streamedRecords.add(index - next);
+            sink.next(DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(chunk.bytes, 0, chunk.length)));
+            if (index == end) {
+                sink.complete();
+            }
+            return index;
+        });
+    }
+
+    private void renderRecord(long index, JsonChunk chunk) {
+        ByteBuffer mapping = mapping(index);
+        int offset = offset(index);
+        chunk.put(ID_FIELD);
+        chunk.putNumber(mapping.getLong(offset + ID_OFFSET));
+        chunk.put(NAME_FIELD);
+        chunk.put(mapping, offset + NAME_OFFSET);
+        chunk.put(EMAIL_FIELD);
+        chunk.put(mapping, offset + EMAIL_OFFSET);
+        chunk.put(AGE_FIELD);
+        chunk.putNumber(mapping.getInt(offset + AGE_OFFSET));
+        chunk.put(CITY_FIELD);
+        chunk.put(mapping, offset + CITY_OFFSET);
+        chunk.put(RECORD_END);
+    }
+
+    /**
+     * Valida a faixa antes de a resposta começar a ser escrita
+     */
+    public void checkRange(long start, int count) {
+        if (!enabled || mappings == null) {
+            throw new InvalidPersonRequestException("PersonStore desabilitado (demo.store.enabled=false)");
+        }
+        if (start < 0 || count < 0 || start + count > records) {
+            throw new InvalidPersonRequestException("Faixa fora do PersonStore: start=" + start
+                    + ", count=" + count + " (registros: " + records + ")");
+        }
+    }
+
+    /**
+     * Bloco de saída do JSON (reaproveitado no writeJsonArray, um por
+     * DataBuffer no jsonArray) - números escritos dígito a dígito, sem
+     * Long.toString
+     */
+    private static final class JsonChunk {
+
+        private final byte[] bytes = new byte[CHUNK_BYTES];
+        private int length;
+
+        boolean isFull() {
+            return length > CHUNK_BYTES - MAX_JSON_RECORD;
+        }
+
+        void put(byte value) {
+            bytes[length++] = value;
+        }
+
+        void put(byte[] values) {
+            System.arraycopy(values, 0, bytes, length, values.length);
+            length += values.length;
+        }
+
+        void put(ByteBuffer mapping, int offset) {
+            int size = mapping.get(offset);
+            mapping.get(offset + 1, bytes, length, size);
+            length += size;
+        }
+
+        void putNumber(long value) {
+            if (value < 0) {
+                put((byte) '-');
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+    }
+
+    /**
+     * Estado do arquivo e contadores para o endpoint de diagnóstico
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("path", path.toString());
+        snapshot.put("records", records);
+        snapshot.put("fileBytes", HEADER_BYTES + records * RECORD_BYTES);
+        snapshot.put("mappings", mappings == null ? 0 : mappings.length);
+        snapshot.put("generatedAtStartup", generated);
+        snapshot.put("generationMs", generationMs);
+        snapshot.put("streamedRecords", streamedRecords.sum());
+        snapshot.put("decodedRecords", decodedRecords.sum());
+        return snapshot;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        // O mapeamento continua válido até ser coletado; só o canal é fechado
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import java.time.Duration;
+
+/**
+ * Lançada quando um fan-out não termina dentro do deadline da requisição
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final Duration deadline;
+
+    public DeadlineExceededException(Duration deadline) {
+        super("Deadline de " + deadline.toMillis() + "ms excedido");
+        this.deadline = deadline;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+}
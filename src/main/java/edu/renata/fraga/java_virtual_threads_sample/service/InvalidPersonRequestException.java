@@ -0,0 +1,11 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+/**
+ * Parâmetros de listagem fora dos limites do servidor ou cursor inválido
+ */
+public class InvalidPersonRequestException extends RuntimeException {
+
+    public InvalidPersonRequestException(String message) {
+        super(message);
+    }
+}
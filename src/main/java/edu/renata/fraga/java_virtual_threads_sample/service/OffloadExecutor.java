@@ -0,0 +1,114 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.EndpointAttribution;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Executor usado pelo PersonService para tirar trabalho blocking da thread da
+ * requisição. Cada profile define o executor real (Virtual Threads ou pool
+ * tradicional) e este wrapper mede fila e tarefas ativas.
+ */
+public class OffloadExecutor implements Executor, MeterBinder {
+
+    private final String name;
+    private final Executor delegate;
+
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicInteger peakActiveTasks = new AtomicInteger();
+    private final LongAdder completedTasks = new LongAdder();
+
+    public OffloadExecutor(String name, Executor delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        queuedTasks.incrementAndGet();
+        try {
+            Runnable attributed = EndpointAttribution.wrap(task);
+            delegate.execute(() -> {
+                queuedTasks.decrementAndGet();
+                peakActiveTasks.accumulateAndGet(activeTasks.incrementAndGet(), Math::max);
+                try {
+                    attributed.run();
+                } finally {
+                    activeTasks.decrementAndGet();
+                    completedTasks.increment();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Tarefa rejeitada pelo executor: nunca chegou a entrar na fila
+            queuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Atalho para CompletableFuture.supplyAsync usando este executor. A tarefa
+     * herda o deadline da requisição: não começa depois dele e é interrompida
+     * (e o future completado com erro) quando a requisição é cancelada.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return RequestDeadline.track(CompletableFuture.supplyAsync(RequestDeadline.wrap(supplier), this));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    public int getPeakActiveTasks() {
+        return peakActiveTasks.get();
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.sum();
+    }
+
+    /**
+     * Snapshot dos contadores para os endpoints de thread-info
+     */
+    public Map<String, Object> snapshot() {
+        return Map.of(
+                "name", name,
+                "queuedTasks", getQueuedTasks(),
+                "activeTasks", getActiveTasks(),
+                "peakActiveTasks", getPeakActiveTasks(),
+                "completedTasks", getCompletedTasks());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("offload.executor.queued", queuedTasks, AtomicInteger::get)
+                .description("Tarefas submetidas aguardando uma thread")
+                .tag("executor", name)
+                .register(registry);
+        Gauge.builder("offload.executor.active", activeTasks, AtomicInteger::get)
+                .description("Tarefas em execução no executor de offload")
+                .tag("executor", name)
+                .register(registry);
+        Gauge.builder("offload.executor.active.peak", peakActiveTasks, AtomicInteger::get)
+                .description("Maior número de tarefas simultâneas observado")
+                .tag("executor", name)
+                .register(registry);
+    }
+}
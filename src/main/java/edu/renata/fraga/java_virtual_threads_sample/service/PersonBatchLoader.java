@@ -0,0 +1,243 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Micro-batcher no estilo DataLoader: buscas individuais de pessoas vindas de
+ * Virtual Threads e de pipelines Reactor são agrupadas por uma janela curta
+ * (tempo ou tamanho) e viram uma única chamada em lote ao backend, com
+ * latência base + custo por item. Índices repetidos no mesmo lote são buscados
+ * uma vez só.
+ * <p>
+ * O caminho de enfileiramento é lock-free (fila concorrente + contadores
+ * atômicos) para poder ser chamado de threads do Schedulers.parallel() sem
+ * bloquear. Lotes blocking rodam em uma Virtual Thread própria; lotes
+ * reativos não ocupam thread durante a latência.
+ */
+@Component
+public class PersonBatchLoader implements MeterBinder {
+
+    private final PersonBackend backend;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final Duration perItemCost;
+
+    private final Map<Call, Batcher> batchers = new EnumMap<>(Call.class);
+    private final Scheduler windowTimer = Schedulers.newSingle("batch-window", true);
+    private final ExecutorService dispatcher = VirtualThreads.newThreadPerTaskExecutor("batch-loader-");
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+
+    public PersonBatchLoader(
+            PersonBackend backend,
+            @Value("${demo.batch.enabled:false}") boolean enabled,
+            @Value("${demo.batch.max-size:100}") int maxBatchSize,
+            @Value("${demo.batch.window-ms:5}") long windowMs,
+            @Value("${demo.batch.per-item-micros:500}") long perItemMicros) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("demo.batch.max-size deve ser positivo: " + maxBatchSize);
+        }
+        this.backend = backend;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.window = Duration.ofMillis(windowMs);
+        this.perItemCost = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(perItemMicros));
+        for (Call call : Call.values()) {
+            batchers.put(call, new Batcher(call));
+        }
+    }
+
+    /**
+     * Quando desabilitado o PersonService mantém uma chamada ao backend por pessoa
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fachada blocking: enfileira e espera o lote (a Virtual Thread estaciona
+     * sem ocupar a carrier)
+     */
+    public Person load(Call call, int index, IntFunction<Person> mapper) {
+        try {
+            return enqueue(call, index, mapper).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Fachada reativa: o mesmo lote atende assinantes reativos e threads blocking
+     */
+    public Mono<Person> loadReactive(Call call, int index, IntFunction<Person> mapper) {
+        return Mono.defer(() -> Mono.fromFuture(enqueue(call, index, mapper), true));
+    }
+
+    private CompletableFuture<Person> enqueue(Call call, int index, IntFunction<Person> mapper) {
+        requests.increment();
+        Request request = new Request(index, mapper, new CompletableFuture<>());
+        batchers.get(call).add(request);
+        return request.future();
+    }
+
+    private record Request(int index, IntFunction<Person> mapper, CompletableFuture<Person> future) {
+    }
+
+    /**
+     * Fila de um tipo de chamada. O primeiro item de uma janela agenda o
+     * flush; atingir maxBatchSize dispara o flush na hora.
+     */
+    private final class Batcher {
+
+        private final Call call;
+        private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        Batcher(Call call) {
+            this.call = call;
+        }
+
+        void add(Request request) {
+            pending.add(request);
+            if (size.incrementAndGet() >= maxBatchSize) {
+                flush();
+            } else if (flushScheduled.compareAndSet(false, true)) {
+                windowTimer.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void flush() {
+            // Itens que chegarem depois daqui agendam uma nova janela
+            flushScheduled.set(false);
+            List<Request> batch = new ArrayList<>(maxBatchSize);
+            Request request;
+            while (batch.size() < maxBatchSize && (request = pending.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(request);
+            }
+            if (!batch.isEmpty()) {
+                dispatch(call, batch);
+            }
+            if (size.get() > 0 && flushScheduled.compareAndSet(false, true)) {
+                windowTimer.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void dispatch(Call call, List<Request> batch) {
+        Map<Integer, List<Request>> byIndex = new LinkedHashMap<>();
+        for (Request request : batch) {
+            byIndex.computeIfAbsent(request.index(), k -> new ArrayList<>(1)).add(request);
+        }
+        batches.increment();
+        keys.add(byIndex.size());
+
+        if (call == Call.REACTIVE) {
+            backend.fetchBatchReactive(call, byIndex.size(), perItemCost)
+                    .subscribe(null, error -> fail(byIndex, error), () -> complete(byIndex));
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    backend.fetchBatch(call, byIndex.size(), perItemCost);
+                    complete(byIndex);
+                } catch (RuntimeException e) {
+                    fail(byIndex, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Dispatcher encerrado (shutdown da aplicação)
+            fail(byIndex, e);
+        }
+    }
+
+    /**
+     * Um mapper que falha completa com erro só os futures do seu índice. No
+     * caminho REACTIVE isto roda no callback do subscribe, onde uma exceção
+     * seria descartada pelo Reactor e deixaria os futures pendentes.
+     */
+    private static void complete(Map<Integer, List<Request>> byIndex) {
+        byIndex.forEach((index, waiting) -> {
+            try {
+                Person person = waiting.get(0).mapper().apply(index);
+                waiting.forEach(request -> request.future().complete(person));
+            } catch (Throwable t) {
+                waiting.forEach(request -> request.future().completeExceptionally(t));
+            }
+        });
+    }
+
+    private static void fail(Map<Integer, List<Request>> byIndex, Throwable error) {
+        byIndex.values().forEach(waiting -> waiting.forEach(request -> request.future().completeExceptionally(error)));
+    }
+
+    /**
+     * Contadores para os endpoints de diagnóstico - requests / batches é o
+     * fator de redução de chamadas ao backend
+     */
+    public Map<String, Object> snapshot() {
+        long batchCount = batches.sum();
+        return Map.of(
+                "enabled", enabled,
+                "requests", requests.sum(),
+                "batches", batchCount,
+                "keys", keys.sum(),
+                "averageBatchSize", batchCount == 0 ? 0 : (double) keys.sum() / batchCount,
+                "windowMs", window.toMillis(),
+                "maxBatchSize", maxBatchSize);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("person.batch.requests", requests, LongAdder::sum)
+                .description("Buscas individuais de pessoas enfileiradas no batch loader")
+                .register(registry);
+        FunctionCounter.builder("person.batch.calls", batches, LongAdder::sum)
+                .description("Chamadas em lote ao backend")
+                .register(registry);
+        FunctionCounter.builder("person.batch.keys", keys, LongAdder::sum)
+                .description("Chaves distintas buscadas nas chamadas em lote")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        windowTimer.dispose();
+        dispatcher.close();
+    }
+}
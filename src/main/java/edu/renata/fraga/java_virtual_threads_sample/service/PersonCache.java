@@ -0,0 +1,187 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+
+/**
+ * Cache read-through das pessoas geradas, compartilhado pelas fachadas blocking
+ * e reativa. Limitado por tamanho (W-TinyLFU do Caffeine) e por TTL.
+ * <p>
+ * Misses concorrentes para o mesmo índice são agrupados: a primeira thread
+ * publica um CompletableFuture e faz a chamada ao backend, as demais esperam
+ * pelo mesmo future. O loader roda fora de qualquer lock do mapa - no Java 21
+ * um bloco synchronized durante o sleep do backend prenderia a Virtual Thread
+ * à carrier (pinning).
+ * <p>
+ * O loader blocking roda no deadline da requisição que começou a carga. Se ela
+ * é cancelada no meio, a entrada pendente sai do mapa e as requisições que
+ * esperavam o mesmo índice tentam de novo com o próprio deadline, em vez de
+ * herdar o 504/503 de outra requisição.
+ */
+@Component
+public class PersonCache implements MeterBinder {
+
+    static final String NAME = "persons";
+
+    private final AsyncCache<Integer, Person> cache;
+
+    public PersonCache(
+            @Value("${demo.cache.max-size:10000}") long maxSize,
+            @Value("${demo.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Fachada blocking: em um miss o loader roda na thread chamadora (Virtual
+     * Thread nos profiles virtual)
+     */
+    public Person get(int index, IntFunction<Person> loader) {
+        while (true) {
+            CompletableFuture<Person> existing = lookup(index);
+            if (existing == null) {
+                CompletableFuture<Person> pending = new CompletableFuture<>();
+                existing = cache.asMap().putIfAbsent(index, pending);
+                if (existing == null) {
+                    return load(index, pending, loader);
+                }
+            }
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof AbandonedLoadException) {
+                    // Carga de outra requisição cancelada: tenta de novo se esta ainda vale
+                    RequestDeadline.checkCurrent();
+                    continue;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+
+    private Person load(int index, CompletableFuture<Person> pending, IntFunction<Person> loader) {
+        try {
+            Person person = loader.apply(index);
+            pending.complete(person);
+            return person;
+        } catch (Throwable t) {
+            if (isCancellation(t)) {
+                // Sai do mapa antes de liberar quem espera, senão eles reencontram a entrada
+                cache.asMap().remove(index, pending);
+                pending.completeExceptionally(new AbandonedLoadException(t));
+            } else {
+                // Future com erro é removido pelo Caffeine: a próxima chamada tenta de novo.
+                // Error também completa o future, senão quem espera o índice trava no join
+                pending.completeExceptionally(t);
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Falha causada pelo cancelamento da requisição que fazia a carga (deadline,
+     * timeout async, cliente desconectado), não pelo backend
+     */
+    private static boolean isCancellation(Throwable t) {
+        return t instanceof DeadlineExceededException
+                || t instanceof CancellationException
+                || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Fachada reativa: um miss assina o loader uma única vez e todos os
+     * assinantes do mesmo índice recebem o resultado. Cancelar um assinante não
+     * cancela a carga em andamento, que pode estar servindo outros.
+     */
+    public Mono<Person> getReactive(int index, IntFunction<Mono<Person>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<Person> existing = lookup(index);
+            if (existing != null) {
+                return await(existing, index, loader);
+            }
+            CompletableFuture<Person> pending = new CompletableFuture<>();
+            existing = cache.asMap().putIfAbsent(index, pending);
+            if (existing != null) {
+                return await(existing, index, loader);
+            }
+            loader.apply(index).subscribe(
+                    pending::complete,
+                    pending::completeExceptionally,
+                    () -> pending.complete(null)); // no-op se já completou com valor
+            return Mono.fromFuture(pending, true);
+        });
+    }
+
+    /**
+     * Espera uma carga já em andamento - se ela foi abandonada por uma requisição
+     * blocking cancelada, começa de novo
+     */
+    private Mono<Person> await(CompletableFuture<Person> existing, int index, IntFunction<Mono<Person>> loader) {
+        return Mono.fromFuture(existing, true)
+                .onErrorResume(AbandonedLoadException.class, e -> getReactive(index, loader));
+    }
+
+    /**
+     * Consulta via getIfPresent para contabilizar hit/miss - operações em
+     * asMap() não entram nas estatísticas
+     */
+    private CompletableFuture<Person> lookup(int index) {
+        return cache.getIfPresent(index);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Estatísticas do cache para os endpoints de diagnóstico
+     */
+    public Map<String, Object> snapshot() {
+        CacheStats stats = cache.synchronous().stats();
+        return Map.of(
+                "size", cache.synchronous().estimatedSize(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... com tag cache=persons
+        new CaffeineCacheMetrics<>(cache.synchronous(), NAME, List.of()).bindTo(registry);
+    }
+
+    /**
+     * Entrega aos que esperavam uma carga abandonada - nunca chega ao cliente
+     */
+    private static final class AbandonedLoadException extends RuntimeException {
+
+        AbandonedLoadException(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
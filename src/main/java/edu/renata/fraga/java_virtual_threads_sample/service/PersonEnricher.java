@@ -0,0 +1,187 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.regex.Pattern;
+
+/**
+ * Etapa de enriquecimento CPU-bound (score, hash iterado e validação) para
+ * misturar trabalho de CPU ao I/O simulado. Com Virtual Threads o trabalho de
+ * CPU ocupa as carrier threads - a estratégia define onde ele roda:
+ * <ul>
+ * <li>INLINE: na própria thread da requisição (carrier da Virtual Thread no
+ * mvc-virtual, event loop / scheduler no WebFlux)</li>
+ * <li>FORK_JOIN: parallel stream em um ForkJoinPool dedicado, fora das
+ * carriers e do commonPool</li>
+ * <li>REACTOR_PARALLEL: parallel().runOn(Schedulers.parallel()), um rail por
+ * core</li>
+ * </ul>
+ */
+@Component
+public class PersonEnricher implements MeterBinder {
+
+    public enum Strategy {
+        INLINE, FORK_JOIN, REACTOR_PARALLEL;
+
+        /**
+         * Aceita "inline", "fork-join", "reactor-parallel" (parâmetro de requisição)
+         */
+        public static Strategy parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidPersonRequestException("Estratégia de enriquecimento desconhecida: " + value);
+            }
+        }
+    }
+
+    private static final Pattern EMAIL = Pattern.compile("^[\\w.+-]+@[\\w-]+(\\.[\\w-]+)+$");
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Comparator<Tuple2<Long, EnrichedPerson>> BY_INDEX = Comparator.comparingLong(Tuple2::getT1);
+
+    private final Strategy defaultStrategy;
+    private final int hashRounds;
+    private final ForkJoinPool pool;
+
+    public PersonEnricher(
+            @Value("${demo.enrichment.strategy:inline}") String defaultStrategy,
+            @Value("${demo.enrichment.hash-rounds:1000}") int hashRounds,
+            @Value("${demo.enrichment.parallelism:0}") int parallelism) {
+        if (hashRounds < 0) {
+            throw new IllegalArgumentException("demo.enrichment.hash-rounds não pode ser negativo: " + hashRounds);
+        }
+        this.defaultStrategy = Strategy.parse(defaultStrategy);
+        this.hashRounds = hashRounds;
+        // Providers de segurança carregados (leitura de arquivos) aqui, não na
+        // primeira chamada em uma thread non-blocking
+        sha256();
+        this.pool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("enrichment-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false);
+    }
+
+    public Strategy getDefaultStrategy() {
+        return defaultStrategy;
+    }
+
+    /**
+     * Custo por pessoa proporcional a hashRounds (SHA-256 encadeado)
+     */
+    public EnrichedPerson enrich(Person person) {
+        MessageDigest sha256 = sha256();
+        byte[] digest = (person.id() + "|" + person.email()).getBytes(StandardCharsets.UTF_8);
+        for (int round = 0; round < hashRounds; round++) {
+            digest = sha256.digest(digest);
+        }
+        int score = ((digest[0] & 0xFF) + person.age() * 7) % 100;
+        boolean valid = person.age() >= 18 && EMAIL.matcher(person.email()).matches();
+        return new EnrichedPerson(person, score, HEX.formatHex(digest, 0, 8), valid);
+    }
+
+    /**
+     * Fachada blocking: devolve na ordem de entrada
+     */
+    public List<EnrichedPerson> enrichAll(List<Person> persons, Strategy strategy) {
+        return switch (strategy) {
+            case INLINE -> persons.stream().map(this::enrich).toList();
+            case FORK_JOIN -> {
+                try {
+                    yield forkJoin(persons).join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+            case REACTOR_PARALLEL -> enrichAll(Flux.fromIterable(persons), strategy).collectList().block();
+        };
+    }
+
+    /**
+     * Fachada reativa: a ordem de emissão do upstream é preservada
+     */
+    public Flux<EnrichedPerson> enrichAll(Flux<Person> persons, Strategy strategy) {
+        return switch (strategy) {
+            case INLINE -> persons.map(this::enrich);
+            case FORK_JOIN -> persons.collectList()
+                    .flatMapMany(list -> Mono.fromFuture(() -> forkJoin(list), true).flatMapIterable(enriched -> enriched));
+            // Cada rail recebe os itens em ordem crescente de índice de entrada (não de
+            // id, que pode vir fora de ordem), então ordered() reconstrói a sequência
+            case REACTOR_PARALLEL -> persons.index()
+                    .parallel()
+                    .runOn(Schedulers.parallel())
+                    .map(indexed -> Tuples.of(indexed.getT1(), enrich(indexed.getT2())))
+                    .ordered(BY_INDEX)
+                    .map(Tuple2::getT2);
+        };
+    }
+
+    /**
+     * Parallel stream submetido ao pool dedicado - as subtarefas do stream
+     * ficam no mesmo pool em vez do commonPool
+     */
+    private CompletableFuture<List<EnrichedPerson>> forkJoin(List<Person> persons) {
+        return CompletableFuture.supplyAsync(() -> persons.parallelStream().map(this::enrich).toList(), pool);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Configuração e estado do pool dedicado para os endpoints de diagnóstico
+     */
+    public Map<String, Object> snapshot() {
+        return Map.of(
+                "defaultStrategy", defaultStrategy,
+                "hashRounds", hashRounds,
+                "parallelism", pool.getParallelism(),
+                "activeThreads", pool.getActiveThreadCount(),
+                "queuedTasks", pool.getQueuedTaskCount(),
+                "steals", pool.getStealCount());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        new ExecutorServiceMetrics(pool, "person-enrichment", Tags.empty()).bindTo(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,162 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.model.PersonPage;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Limites de tamanho das listagens e cursores da API paginada. As pessoas são
+ * determinísticas por índice (PersonService.createPerson), então o cursor só
+ * precisa carregar o próximo índice - não há estado no servidor entre páginas.
+ * <p>
+ * Endpoints que materializam a lista inteira (count, batches * countPerBatch)
+ * são limitados a max-count; volumes maiores são percorridos página a página,
+ * com memória constante por requisição.
+ * <p>
+ * Com o PersonStore ligado toda pessoa é lida do store por índice: o startup
+ * falha se demo.store.records não cobre demo.pagination.total-persons, e os
+ * checks de count rejeitam faixas além do store antes de pagar a latência do
+ * backend.
+ */
+@Component
+public class PersonPagination {
+
+    private static final String CURSOR_PREFIX = "i:";
+
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final int maxCount;
+    private final int totalPersons;
+    private final long storeRecords;
+
+    public PersonPagination(
+            @Value("${demo.pagination.default-limit:100}") int defaultLimit,
+            @Value("${demo.pagination.max-limit:500}") int maxLimit,
+            @Value("${demo.pagination.max-count:10000}") int maxCount,
+            @Value("${demo.pagination.total-persons:1000000}") int totalPersons,
+            PersonStore personStore) {
+        if (defaultLimit <= 0 || defaultLimit > maxLimit) {
+            throw new IllegalArgumentException("Limites de página inválidos: default=" + defaultLimit
+                    + ", max=" + maxLimit);
+        }
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.maxCount = maxCount;
+        this.totalPersons = totalPersons;
+        this.storeRecords = personStore.isEnabled() ? personStore.size() : Long.MAX_VALUE;
+        if (storeRecords < totalPersons) {
+            throw new IllegalArgumentException("demo.store.records (" + storeRecords
+                    + ") não cobre demo.pagination.total-persons (" + totalPersons + ")");
+        }
+    }
+
+    /**
+     * Faixa de índices [start, end) de uma página pedida com limit
+     */
+    public record Range(int start, int end, int limit) {
+
+        public int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Valida count dos endpoints que devolvem a lista inteira
+     */
+    public void checkCount(int count) {
+        if (count < 0 || count > maxCount) {
+            throw new InvalidPersonRequestException("count deve estar entre 0 e " + maxCount
+                    + " (use a listagem paginada para volumes maiores): " + count);
+        }
+        checkStoreRange(count);
+    }
+
+    /**
+     * Endpoints de stream não têm teto (memória constante), só não aceitam
+     * count negativo nem além do store
+     */
+    public void checkStreamCount(int count) {
+        if (count < 0) {
+            throw new InvalidPersonRequestException("count não pode ser negativo: " + count);
+        }
+        checkStoreRange(count);
+    }
+
+    /**
+     * Chamadas em voo dos pipelines reativos - o Reactor rejeitaria valores
+     * menores que 1 com IllegalArgumentException (500)
+     */
+    public void checkConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new InvalidPersonRequestException("concurrency deve ser pelo menos 1: " + concurrency);
+        }
+    }
+
+    /**
+     * Valida batches * countPerBatch sem overflow de int
+     */
+    public void checkCount(int batches, int countPerBatch) {
+        if (batches < 0 || countPerBatch < 0 || (long) batches * countPerBatch > maxCount) {
+            throw new InvalidPersonRequestException("batches * countPerBatch deve estar entre 0 e " + maxCount
+                    + ": " + batches + " * " + countPerBatch);
+        }
+        checkStoreRange((long) batches * countPerBatch);
+    }
+
+    /**
+     * Com o store ligado os índices [0, count) precisam existir nele -
+     * validado antes de a resposta começar
+     */
+    private void checkStoreRange(long count) {
+        if (count > storeRecords) {
+            throw new InvalidPersonRequestException("count acima dos registros do PersonStore (" + storeRecords
+                    + "): " + count);
+        }
+    }
+
+    /**
+     * Faixa pedida por cursor (nulo = início) e limit (nulo = padrão),
+     * cortada no fim do conjunto de pessoas
+     */
+    public Range range(String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultLimit : limit;
+        if (pageSize <= 0 || pageSize > maxLimit) {
+            throw new InvalidPersonRequestException("limit deve estar entre 1 e " + maxLimit + ": " + pageSize);
+        }
+        int start = cursor == null || cursor.isEmpty() ? 0 : decodeCursor(cursor);
+        return new Range(start, (int) Math.min((long) start + pageSize, totalPersons), pageSize);
+    }
+
+    public PersonPage page(Range range, List<Person> persons) {
+        return new PersonPage(persons, range.limit(), range.end() < totalPersons ? encodeCursor(range.end()) : null);
+    }
+
+    /**
+     * Cursor opaco para o cliente: o índice codificado em Base64 URL-safe
+     */
+    String encodeCursor(int index) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + index).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    int decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                int index = Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+                if (index >= 0 && index <= totalPersons) {
+                    return index;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Base64 ou número inválido: mesma resposta de cursor fora da faixa
+        }
+        throw new InvalidPersonRequestException("Cursor inválido: " + cursor);
+    }
+}
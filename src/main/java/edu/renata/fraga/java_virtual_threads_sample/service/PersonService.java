@@ -1,15 +1,26 @@
 package edu.renata.fraga.java_virtual_threads_sample.service;
 
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.downstream.DownstreamPersonClient;
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
 import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonDatabase;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
-import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class PersonService {
@@ -25,27 +36,72 @@ public class PersonService {
             "Fortaleza", "Curitiba", "Recife", "Porto Alegre", "Manaus",
             "Belém", "Goiânia", "Campinas", "São Luís", "Maceió");
 
+    /**
+     * Emails pré-calculados (mesmo índice de NAMES) - evita toLowerCase/replace e
+     * concatenação a cada pessoa gerada
+     */
+    private static final List<String> EMAILS = NAMES.stream()
+            .map(name -> name.toLowerCase(Locale.ROOT).replace(" ", ".") + "@example.com")
+            .toList();
+
+    private final PersonBackend backend;
+    private final OffloadExecutor offloadExecutor;
+    private final Scheduler blockingScheduler;
+    private final StructuredFanOut structuredFanOut;
+    private final PersonCache personCache;
+    private final PersonBatchLoader batchLoader;
+    private final PersonEnricher enricher;
+    private final PersonDatabase personDatabase;
+    private final DownstreamPersonClient downstreamClient;
+    private final PersonStore personStore;
+
+    public PersonService(PersonBackend backend, OffloadExecutor offloadExecutor, Scheduler blockingScheduler,
+            StructuredFanOut structuredFanOut, PersonCache personCache, PersonBatchLoader batchLoader,
+            PersonEnricher enricher, PersonDatabase personDatabase, DownstreamPersonClient downstreamClient,
+            PersonStore personStore) {
+        this.backend = backend;
+        this.offloadExecutor = offloadExecutor;
+        this.blockingScheduler = blockingScheduler;
+        this.structuredFanOut = structuredFanOut;
+        this.personCache = personCache;
+        this.batchLoader = batchLoader;
+        this.enricher = enricher;
+        this.personDatabase = personDatabase;
+        this.downstreamClient = downstreamClient;
+        this.personStore = personStore;
+    }
+
+    /**
+     * Modos de persistência, downstream HTTP e store mapeado: o banco
+     * embarcado, o stub downstream e o arquivo servem as mesmas pessoas que
+     * createPerson gera
+     */
+    @PostConstruct
+    void initializeSources() {
+        if (personDatabase.isEnabled()) {
+            personDatabase.seed(this::createPerson);
+        }
+        if (downstreamClient.isEnabled()) {
+            downstreamClient.start(this::createPerson);
+        }
+        if (personStore.isEnabled()) {
+            personStore.open(this::createPerson);
+        }
+    }
+
     /**
      * Simula uma operação blocking mais realista (ex: consulta a banco de dados ou
-     * API externa)
+     * API externa) - 500ms por padrão, distribuição definida pelo PersonBackend
      */
     private void simulateBlockingOperation() {
-        try {
-            Thread.sleep(500); // Simula 500ms de latência - mais realista para DB/API calls
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        backend.fetch(Call.INTENSIVE);
     }
 
     /**
-     * Simula operação blocking rápida para comparação
+     * Simula operação blocking rápida para comparação (100ms por padrão)
      */
     private void simulateQuickBlockingOperation() {
-        try {
-            Thread.sleep(100); // Simula 100ms de latência
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        backend.fetch(Call.QUICK);
     }
 
     /**
@@ -61,7 +117,7 @@ public class PersonService {
      * Implementação com CompletableFuture para Spring MVC com Virtual Threads
      */
     public CompletableFuture<List<Person>> getPersonsAsync(int count) {
-        return CompletableFuture.supplyAsync(() -> IntStream.range(0, count)
+        return offloadExecutor.supplyAsync(() -> IntStream.range(0, count)
                 .mapToObj(this::createPersonWithDelay)
                 .toList());
     }
@@ -71,7 +127,7 @@ public class PersonService {
      */
     public CompletableFuture<List<Person>> getPersonsConcurrent(int batches, int countPerBatch) {
         List<CompletableFuture<List<Person>>> batchFutures = IntStream.range(0, batches)
-                .mapToObj(batchIndex -> CompletableFuture
+                .mapToObj(batchIndex -> offloadExecutor
                         .supplyAsync(() -> IntStream.range(batchIndex * countPerBatch, (batchIndex + 1) * countPerBatch)
                                 .mapToObj(this::createPersonWithDelay)
                                 .toList()))
@@ -83,73 +139,176 @@ public class PersonService {
                         .toList());
     }
 
+    /**
+     * Implementação com fan-out estruturado: cada pessoa em sua própria Virtual
+     * Thread, latência total ~ max(latência por item) em vez da soma
+     */
+    public List<Person> getPersonsStructured(int count) {
+        return structuredFanOut.forkAll(count, this::createPersonWithDelay);
+    }
+
+    /**
+     * Implementação com cache read-through: só os misses pagam a latência do
+     * backend, em paralelo no executor de offload
+     */
+    public List<Person> getPersonsCached(int count) {
+        List<CompletableFuture<Person>> futures = IntStream.range(0, count)
+                .mapToObj(index -> offloadExecutor.supplyAsync(() -> getCachedPerson(index)))
+                .toList();
+
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        } catch (CompletionException e) {
+            // Falha do backend, bulkhead cheio ou deadline chegam aqui como causa
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Página [start, start + limit) da listagem por cursor: as pessoas são
+     * geradas em paralelo no fan-out estruturado (concorrência limitada por
+     * demo.structured.max-concurrency) e só a página fica em memória
+     */
+    public List<Person> getPersonsRange(int start, int limit) {
+        return structuredFanOut.forkAll(limit, offset -> createPersonWithDelay(start + offset));
+    }
+
+    /**
+     * Página da listagem por cursor - versão reativa, até concurrency chamadas
+     * ao backend em voo
+     */
+    public Flux<Person> getPersonsRangeReactive(int start, int limit, int concurrency) {
+        return withDeadline(Flux.range(start, limit)
+                .flatMapSequential(this::createPersonReactive, concurrency));
+    }
+
+    /**
+     * Carga mista I/O + CPU: as pessoas são buscadas em paralelo no fan-out
+     * estruturado e depois enriquecidas pela estratégia escolhida
+     */
+    public List<EnrichedPerson> getPersonsEnriched(int count, PersonEnricher.Strategy strategy) {
+        return enricher.enrichAll(getPersonsStructured(count), strategy);
+    }
+
+    /**
+     * Carga mista I/O + CPU - versão reativa
+     */
+    public Flux<EnrichedPerson> getPersonsEnrichedReactive(int count, int concurrency, PersonEnricher.Strategy strategy) {
+        return withDeadline(enricher.enrichAll(Flux.range(0, count).flatMapSequential(this::createPersonReactive, concurrency),
+                strategy));
+    }
+
+    public PersonEnricher.Strategy getDefaultEnrichmentStrategy() {
+        return enricher.getDefaultStrategy();
+    }
+
+    /**
+     * Pessoa via cache - fachada blocking
+     */
+    public Person getCachedPerson(int index) {
+        return personCache.get(index, this::createPersonWithDelay);
+    }
+
+    /**
+     * Geração sob demanda para respostas em streaming: nada é materializado em
+     * lista e cada lote de batchSize pessoas custa uma chamada rápida ao backend
+     * (como uma página de cursor no banco)
+     */
+    public Stream<Person> streamPersons(int count, int batchSize) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> {
+                    if (index % batchSize == 0) {
+                        simulateQuickBlockingOperation();
+                    }
+                    return loadPerson(index);
+                });
+    }
+
     /**
      * Implementação reativa para Spring WebFlux (tradicional)
      */
     public Flux<Person> getPersonsReactive(int count) {
-        return Flux.range(0, count)
-                .delayElements(Duration.ofMillis(50)) // Simula latência de forma não-blocking
-                .map(this::createPerson);
+        return withDeadline(Flux.range(0, count)
+                .concatMap(this::createPersonReactive)); // Simula latência de forma não-blocking
+    }
+
+    /**
+     * Implementação reativa com concorrência limitada: até concurrency chamadas
+     * ao backend em voo, ordem preservada e produção guiada pela demanda
+     * (request(n)) do assinante - consumidores lentos seguram a produção em vez
+     * de acumular buffers, consumidores rápidos recebem em paralelo
+     */
+    public Flux<Person> getPersonsReactiveConcurrent(int count, int concurrency) {
+        // O flatMapSequential já pede concurrency elementos ao Flux.range e repõe
+        // conforme cada um termina - um limitRate antes dele não muda a demanda
+        return withDeadline(Flux.range(0, count)
+                .flatMapSequential(this::createPersonReactive, concurrency, 1));
+    }
+
+    /**
+     * Implementação reativa com o mesmo cache da fachada blocking
+     */
+    public Flux<Person> getPersonsCachedReactive(int count, int concurrency) {
+        return withDeadline(Flux.range(0, count)
+                .flatMapSequential(this::getCachedPersonReactive, concurrency));
+    }
+
+    /**
+     * Pessoa via cache - fachada reativa
+     */
+    public Mono<Person> getCachedPersonReactive(int index) {
+        return personCache.getReactive(index, this::createPersonReactive);
     }
 
     /**
      * Implementação reativa com delay maior para comparação
      */
     public Mono<List<Person>> getPersonsReactiveList(int count) {
-        return Flux.range(0, count)
-                .delayElements(Duration.ofMillis(50))
-                .map(this::createPerson)
-                .collectList();
+        return withDeadline(Flux.range(0, count)
+                .concatMap(this::createPersonReactive)
+                .collectList());
     }
 
     /**
      * Implementação reativa com processamento paralelo em batches
      */
     public Mono<List<Person>> getPersonsReactiveList(int batches, int countPerBatch) {
-        return Flux.range(0, batches)
+        return withDeadline(Flux.range(0, batches)
                 .flatMap(batchIndex -> Flux.range(batchIndex * countPerBatch, countPerBatch)
-                        .publishOn(Schedulers.parallel())
-                        .map(index -> {
-                            simulateBlockingOperation(); // Simula operação blocking
-                            return createPerson(index);
-                        }))
-                .collectList();
+                        .publishOn(blockingScheduler) // Nunca Schedulers.parallel() para trabalho blocking
+                        .map(this::createPersonWithIntensiveDelay)) // Simula operação blocking
+                .collectList());
     }
 
     /**
      * Implementação reativa com scheduler específico para demonstrar Virtual
-     * Threads no WebFlux
+     * Threads no WebFlux (scheduler blocking do profile vs boundedElastic)
      */
     public Flux<Person> getPersonsReactiveWithScheduler(int count, boolean useVirtualThreads) {
-        return Flux.range(0, count)
-                .publishOn(useVirtualThreads ? Schedulers.boundedElastic() : Schedulers.parallel())
-                .map(index -> {
-                    simulateBlockingOperation(); // Operação blocking para testar Virtual Threads
-                    return createPerson(index);
-                })
-                .delayElements(Duration.ofMillis(10)); // Pequeno delay para evitar overhead
+        return withDeadline(Flux.range(0, count)
+                .publishOn(useVirtualThreads ? blockingScheduler : Schedulers.boundedElastic())
+                .map(this::createPersonWithIntensiveDelay)); // Operação blocking para testar Virtual Threads
     }
 
     /**
      * Implementação reativa com blocking I/O simulado para lista
      */
     public Mono<List<Person>> getPersonsReactiveListWithScheduler(int count, boolean useVirtualThreads) {
-        return Flux.range(0, count)
-                .publishOn(useVirtualThreads ? Schedulers.boundedElastic() : Schedulers.parallel())
-                .map(index -> {
-                    simulateBlockingOperation(); // Importante: blocking operation para testar VT
-                    return createPerson(index);
-                })
-                .collectList();
+        return withDeadline(Flux.range(0, count)
+                .publishOn(useVirtualThreads ? blockingScheduler : Schedulers.boundedElastic())
+                .map(this::createPersonWithIntensiveDelay) // Importante: blocking operation para testar VT
+                .collectList());
     }
 
     /**
      * Implementação reativa com I/O blocking mais intensivo
      */
     public Flux<Person> getPersonsReactiveBlocking(int count) {
-        return Flux.range(0, count)
-                .publishOn(Schedulers.boundedElastic()) // Usa scheduler adequado para blocking I/O
-                .map(this::createPersonWithDelay); // Com blocking operation
+        return withDeadline(Flux.range(0, count)
+                .publishOn(blockingScheduler) // Usa scheduler adequado para blocking I/O
+                .map(this::createPersonWithDelay)); // Com blocking operation
     }
 
     /**
@@ -158,14 +317,19 @@ public class PersonService {
      */
     public List<Person> getPersonsBlockingIntensive(int count) {
         List<CompletableFuture<Person>> futures = IntStream.range(0, count)
-                .mapToObj(index -> CompletableFuture.supplyAsync(() -> createPersonWithIntensiveDelay(index)))
+                .mapToObj(index -> offloadExecutor.supplyAsync(() -> createPersonWithIntensiveDelay(index)))
                 .toList();
 
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> futures.stream()
-                        .map(CompletableFuture::join)
-                        .toList())
-                .join();
+        try {
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .thenApply(v -> futures.stream()
+                            .map(CompletableFuture::join)
+                            .toList())
+                    .join();
+        } catch (CompletionException e) {
+            // Deadline/cancelamento da requisição chegam aqui como causa
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
     }
 
     /**
@@ -181,36 +345,101 @@ public class PersonService {
      * Implementação reativa com blocking I/O intensivo para lista
      */
     public Mono<List<Person>> getPersonsReactiveListIntensive(int count) {
-        return Flux.range(0, count)
-                .publishOn(Schedulers.boundedElastic()) // Importante: usar boundedElastic para blocking I/O
+        return withDeadline(Flux.range(0, count)
+                .publishOn(blockingScheduler) // Importante: scheduler blocking do profile
                 .map(this::createPersonWithIntensiveDelay) // Com blocking operation mais intensiva
-                .collectList();
+                .collectList());
     }
 
+    /**
+     * Pipelines reativos respeitam o deadline da requisição: contexto Reactor no
+     * servidor reativo, deadline da thread da requisição no Tomcat
+     */
+    private static <T> Flux<T> withDeadline(Flux<T> flux) {
+        RequestDeadline captured = RequestDeadline.current();
+        return Flux.deferContextual(context -> {
+            RequestDeadline deadline = context.getOrDefault(RequestDeadline.class, captured);
+            return deadline == null ? flux : deadline.apply(flux);
+        });
+    }
+
+    private static <T> Mono<T> withDeadline(Mono<T> mono) {
+        RequestDeadline captured = RequestDeadline.current();
+        return Mono.deferContextual(context -> {
+            RequestDeadline deadline = context.getOrDefault(RequestDeadline.class, captured);
+            return deadline == null ? mono : deadline.apply(mono);
+        });
+    }
+
+    /**
+     * Com demo.batch.enabled as buscas por pessoa passam pelo PersonBatchLoader
+     * e viram chamadas em lote ao backend
+     */
     private Person createPersonWithDelay(int index) {
+        RequestDeadline.checkCurrent(); // Requisição já cancelada: não chama o backend
+        if (personDatabase.isEnabled()) {
+            return personDatabase.find(Call.QUICK, index); // JDBC + HikariCP
+        }
+        if (downstreamClient.isEnabled()) {
+            return downstreamClient.fetch(Call.QUICK, index); // RestClient / HttpClient do JDK
+        }
+        if (batchLoader.isEnabled()) {
+            return batchLoader.load(Call.QUICK, index, this::loadPerson);
+        }
         simulateQuickBlockingOperation(); // Simula operação blocking rápida (100ms)
-        return createPerson(index);
+        return loadPerson(index);
     }
 
     private Person createPersonWithIntensiveDelay(int index) {
+        RequestDeadline.checkCurrent();
+        if (personDatabase.isEnabled()) {
+            return personDatabase.find(Call.INTENSIVE, index);
+        }
+        if (downstreamClient.isEnabled()) {
+            return downstreamClient.fetch(Call.INTENSIVE, index);
+        }
+        if (batchLoader.isEnabled()) {
+            return batchLoader.load(Call.INTENSIVE, index, this::loadPerson);
+        }
         simulateBlockingOperation(); // Simula operação blocking mais intensiva (500ms)
-        return createPerson(index);
+        return loadPerson(index);
+    }
+
+    private Mono<Person> createPersonReactive(int index) {
+        if (personDatabase.isEnabled()) {
+            return personDatabase.findReactive(index); // R2DBC + r2dbc-pool
+        }
+        if (downstreamClient.isEnabled()) {
+            return downstreamClient.fetchReactive(index); // WebClient + Reactor Netty
+        }
+        if (batchLoader.isEnabled()) {
+            return batchLoader.loadReactive(Call.REACTIVE, index, this::loadPerson);
+        }
+        return backend.fetchReactive(Call.REACTIVE) // Latência non-blocking (50ms por padrão)
+                .then(Mono.fromSupplier(() -> loadPerson(index)));
+    }
+
+    /**
+     * Com demo.store.enabled a pessoa é decodificada do PersonStore mapeado em
+     * memória (gerado no startup com createPerson) em vez de montada a cada
+     * chamada - só o registro pedido é lido, o dataset fica fora do heap
+     */
+    private Person loadPerson(int index) {
+        return personStore.isEnabled() ? personStore.read(index) : createPerson(index);
     }
 
-    private Person createPerson(int index) {
+    Person createPerson(int index) {
+        int nameIndex = index % NAMES.size();
         return Person.create(
-                (long) index,
-                NAMES.get(index % NAMES.size()),
-                generateEmail(index),
+                index,
+                NAMES.get(nameIndex),
+                EMAILS.get(nameIndex),
                 20 + (index % 50), // Idade entre 20 e 69
                 CITIES.get(index % CITIES.size()));
     }
 
-    private String generateEmail(int index) {
-        String name = NAMES.get(index % NAMES.size())
-                .toLowerCase()
-                .replace(" ", ".");
-        return name + "@example.com";
+    String generateEmail(int index) {
+        return EMAILS.get(index % EMAILS.size());
     }
 
     /**
@@ -225,11 +454,16 @@ public class PersonService {
     }
 
     /**
-     * Método para obter informações detalhadas sobre schedulers
+     * Contadores do executor de offload usado pelos caminhos assíncronos
+     */
+    public Map<String, Object> getOffloadExecutorInfo() {
+        return offloadExecutor.snapshot();
+    }
+
+    /**
+     * Estatísticas do cache de pessoas
      */
-    public String getSchedulerInfo() {
-        return String.format("BoundedElastic pools: %d, Parallel pools: %d",
-                Schedulers.boundedElastic().hashCode(),
-                Schedulers.parallel().hashCode());
+    public Map<String, Object> getCacheInfo() {
+        return personCache.snapshot();
     }
 }
@@ -0,0 +1,296 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Deadline e cancelamento de uma requisição. Criado pelos filtros HTTP
+ * (RequestDeadlines.start), associado à thread da requisição e propagado
+ * para as tarefas do OffloadExecutor, para os forks do StructuredFanOut e
+ * para os pipelines reativos do PersonService.
+ * <p>
+ * Quando o deadline passa, o timeout async do MVC dispara ou o cliente
+ * desconecta, o cancelamento:
+ * <ul>
+ * <li>completa com erro os futures ainda pendentes (quem faz join() é liberado)</li>
+ * <li>interrompe as threads que executam tarefas da requisição</li>
+ * <li>descarta as assinaturas reativas envolvidas por {@link #apply(Flux)}</li>
+ * </ul>
+ * Tarefas que ainda não começaram nem chegam a chamar o backend.
+ */
+public final class RequestDeadline {
+
+    /**
+     * Motivo do cancelamento
+     */
+    public enum Reason {
+        DEADLINE, ASYNC_TIMEOUT, CLIENT_GONE
+    }
+
+    /**
+     * Escopo de uma associação com a thread atual - fechar restaura a anterior
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final RequestDeadlines owner;
+    private final Duration timeout;
+    private final long deadlineNanos;
+
+    private final AtomicReference<Reason> cancelled = new AtomicReference<>();
+    private final Sinks.One<Reason> cancellation = Sinks.one();
+    private final Set<CompletableFuture<?>> pendingFutures = ConcurrentHashMap.newKeySet();
+    private final Set<RunningTask> runningTasks = ConcurrentHashMap.newKeySet();
+    private volatile Disposable expiryTimer;
+
+    RequestDeadline(RequestDeadlines owner, Duration timeout) {
+        this.owner = owner;
+        this.timeout = timeout;
+        this.deadlineNanos = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+    }
+
+    void setExpiryTimer(Disposable expiryTimer) {
+        this.expiryTimer = expiryTimer;
+    }
+
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Deadline do contexto Reactor (filtros WebFlux), com fallback para o da thread
+     */
+    public static RequestDeadline current(ContextView context) {
+        return context.getOrDefault(RequestDeadline.class, current());
+    }
+
+    public Scope bind() {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static Scope bind(RequestDeadline deadline) {
+        return deadline == null ? () -> {
+        } : deadline.bind();
+    }
+
+    /**
+     * Timeout pedido pelo cliente, ou null sem deadline explícito
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get() != null || (timeout != null && System.nanoTime() >= deadlineNanos);
+    }
+
+    /**
+     * Falha rápido antes de começar trabalho cujo resultado será descartado
+     */
+    public static void checkCurrent() {
+        RequestDeadline deadline = current();
+        if (deadline != null && deadline.isCancelled()) {
+            deadline.owner.recordSkipped();
+            throw deadline.exception();
+        }
+    }
+
+    /**
+     * Menor entre o deadline padrão de um componente e o tempo restante da requisição
+     */
+    public static Duration limit(Duration componentDeadline) {
+        RequestDeadline deadline = current();
+        if (deadline == null || deadline.timeout == null) {
+            return componentDeadline;
+        }
+        Duration remaining = deadline.remaining();
+        return remaining.compareTo(componentDeadline) < 0 ? remaining : componentDeadline;
+    }
+
+    RuntimeException exception() {
+        Reason reason = cancelled.get();
+        if (reason == null || reason == Reason.DEADLINE) {
+            return new DeadlineExceededException(timeout == null ? Duration.ZERO : timeout);
+        }
+        return new CancellationException("Requisição cancelada: " + reason);
+    }
+
+    /**
+     * Tarefa da requisição para outra thread: herda o deadline, não executa se
+     * ele já passou e pode ser interrompida enquanto roda
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        RequestDeadline deadline = current();
+        if (deadline == null) {
+            return supplier;
+        }
+        return () -> deadline.run(supplier);
+    }
+
+    public <T> T run(Supplier<T> supplier) {
+        if (isCancelled()) {
+            owner.recordSkipped();
+            throw exception();
+        }
+        RunningTask task = new RunningTask(Thread.currentThread());
+        runningTasks.add(task);
+        try (Scope ignored = bind()) {
+            T result = supplier.get();
+            if (cancelled.get() != null) {
+                // Terminou mesmo assim, mas ninguém mais espera o resultado
+                owner.recordWasted();
+            }
+            return result;
+        } finally {
+            runningTasks.remove(task);
+            task.finish();
+        }
+    }
+
+    /**
+     * Future de uma tarefa da requisição: completado com erro no cancelamento
+     */
+    public static <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        RequestDeadline deadline = current();
+        if (deadline != null && !future.isDone()) {
+            deadline.pendingFutures.add(future);
+            future.whenComplete((result, error) -> deadline.pendingFutures.remove(future));
+            if (deadline.cancelled.get() != null) {
+                future.completeExceptionally(deadline.exception());
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Pipeline reativo da requisição: descartado (erro DeadlineExceeded) quando o
+     * deadline passa ou a requisição é cancelada. Sem timeout só o sinal de
+     * cancelamento é observado - nenhum timer por assinatura
+     */
+    public <T> Flux<T> apply(Flux<T> flux) {
+        return Flux.defer(() -> {
+            // Um único timer por assinatura (timeout() reagendaria a cada item)
+            AtomicBoolean fired = new AtomicBoolean();
+            Mono<Reason> signal = timeout == null
+                    ? cancellation.asMono()
+                    : Mono.firstWithSignal(cancellation.asMono(), Mono.delay(remaining()).thenReturn(Reason.DEADLINE));
+            return flux.takeUntilOther(signal.doOnNext(reason -> fired.set(true)))
+                    .concatWith(Mono.defer(() -> {
+                        if (!fired.get()) {
+                            return Mono.empty();
+                        }
+                        owner.recordDisposed();
+                        return Mono.error(exception());
+                    }));
+        });
+    }
+
+    public <T> Mono<T> apply(Mono<T> mono) {
+        return apply(mono.flux()).next();
+    }
+
+    /**
+     * Cancela a requisição - só o primeiro motivo conta
+     */
+    public void cancel(Reason reason) {
+        if (!cancelled.compareAndSet(null, reason)) {
+            return;
+        }
+        owner.recordCancelled(reason);
+        disposeTimer();
+        cancellation.tryEmitValue(reason);
+        RuntimeException exception = exception();
+        for (CompletableFuture<?> future : pendingFutures) {
+            if (future.completeExceptionally(exception)) {
+                owner.recordAbandoned();
+            }
+        }
+        for (RunningTask task : runningTasks) {
+            if (task.interrupt()) {
+                owner.recordInterrupted();
+            }
+        }
+    }
+
+    /**
+     * Resposta concluída: nada mais a cancelar
+     */
+    public void complete() {
+        disposeTimer();
+    }
+
+    private void disposeTimer() {
+        Disposable timer = expiryTimer;
+        if (timer != null) {
+            timer.dispose();
+        }
+    }
+
+    /**
+     * Thread executando uma tarefa da requisição. O interrupt só acontece
+     * enquanto a tarefa roda: se ela termina durante o cancelamento, espera o
+     * interrupt acontecer e limpa a flag antes de devolver a thread (threads de
+     * pool não podem carregar o interrupt para a próxima tarefa).
+     */
+    private static final class RunningTask {
+
+        private static final int RUNNING = 0;
+        private static final int INTERRUPTING = 1;
+        private static final int DONE = 2;
+
+        private final Thread thread;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        RunningTask(Thread thread) {
+            this.thread = thread;
+        }
+
+        boolean interrupt() {
+            if (!state.compareAndSet(RUNNING, INTERRUPTING)) {
+                return false;
+            }
+            thread.interrupt();
+            state.set(DONE);
+            return true;
+        }
+
+        void finish() {
+            if (state.compareAndSet(RUNNING, DONE)) {
+                return;
+            }
+            while (state.get() == INTERRUPTING) {
+                Thread.onSpinWait();
+            }
+            Thread.interrupted();
+        }
+    }
+}
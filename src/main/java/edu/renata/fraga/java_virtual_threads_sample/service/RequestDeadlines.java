@@ -0,0 +1,155 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cria o RequestDeadline de cada requisição a partir do header de timeout
+ * (ex: X-Request-Timeout-Ms: 2000) e agenda o cancelamento quando ele
+ * expira. Sem header (e sem demo.deadline.default-ms) nenhum timer é agendado,
+ * mas cada requisição ainda tem o seu deadline, cancelado pelo timeout async
+ * do MVC ou pela desconexão do cliente.
+ * <p>
+ * Os contadores medem o trabalho desperdiçado evitado: tarefas que nem
+ * começaram, threads interrompidas, futures abandonados e assinaturas
+ * reativas descartadas - e o desperdício que sobrou (tarefas que terminaram
+ * depois do cancelamento).
+ */
+@Component
+public class RequestDeadlines implements MeterBinder {
+
+    private final String header;
+    private final Duration defaultTimeout;
+    private final Duration maxTimeout;
+    private final Scheduler timer = Schedulers.newSingle("request-deadline", true);
+
+    private final Map<RequestDeadline.Reason, LongAdder> cancelled = new EnumMap<>(RequestDeadline.Reason.class);
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder interrupted = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder disposed = new LongAdder();
+    private final LongAdder wasted = new LongAdder();
+
+    public RequestDeadlines(
+            @Value("${demo.deadline.header:X-Request-Timeout-Ms}") String header,
+            @Value("${demo.deadline.default-ms:0}") long defaultMs,
+            @Value("${demo.deadline.max-ms:30000}") long maxMs) {
+        this.header = header;
+        this.defaultTimeout = defaultMs > 0 ? Duration.ofMillis(defaultMs) : null;
+        this.maxTimeout = Duration.ofMillis(maxMs);
+        for (RequestDeadline.Reason reason : RequestDeadline.Reason.values()) {
+            cancelled.put(reason, new LongAdder());
+        }
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * Deadline de uma nova requisição - headerValue nulo ou inválido usa o padrão
+     */
+    public RequestDeadline start(String headerValue) {
+        Duration timeout = parse(headerValue);
+        RequestDeadline deadline = new RequestDeadline(this, timeout);
+        if (timeout != null) {
+            deadline.setExpiryTimer(timer.schedule(() -> deadline.cancel(RequestDeadline.Reason.DEADLINE),
+                    timeout.toNanos(), TimeUnit.NANOSECONDS));
+        }
+        return deadline;
+    }
+
+    private Duration parse(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return defaultTimeout;
+        }
+        try {
+            long millis = Long.parseLong(headerValue.trim());
+            if (millis <= 0) {
+                return defaultTimeout;
+            }
+            Duration timeout = Duration.ofMillis(millis);
+            return timeout.compareTo(maxTimeout) > 0 ? maxTimeout : timeout;
+        } catch (NumberFormatException e) {
+            return defaultTimeout;
+        }
+    }
+
+    void recordCancelled(RequestDeadline.Reason reason) {
+        cancelled.get(reason).increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    void recordInterrupted() {
+        interrupted.increment();
+    }
+
+    void recordAbandoned() {
+        abandoned.increment();
+    }
+
+    void recordDisposed() {
+        disposed.increment();
+    }
+
+    void recordWasted() {
+        wasted.increment();
+    }
+
+    /**
+     * Contadores para os endpoints de diagnóstico
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Long> cancelledByReason = new LinkedHashMap<>();
+        cancelled.forEach((reason, count) -> cancelledByReason.put(reason.name(), count.sum()));
+        return Map.of(
+                "header", header,
+                "defaultTimeoutMs", defaultTimeout == null ? 0 : defaultTimeout.toMillis(),
+                "maxTimeoutMs", maxTimeout.toMillis(),
+                "cancelledRequests", cancelledByReason,
+                "avoidedWork", Map.of(
+                        "skippedTasks", skipped.sum(),
+                        "interruptedTasks", interrupted.sum(),
+                        "abandonedFutures", abandoned.sum(),
+                        "disposedSubscriptions", disposed.sum()),
+                "wastedTasks", wasted.sum());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        cancelled.forEach((reason, count) -> FunctionCounter.builder("request.cancelled", count, LongAdder::sum)
+                .description("Requisições canceladas antes de responder")
+                .tag("reason", reason.name().toLowerCase())
+                .register(registry));
+        Map.of("skipped", skipped, "interrupted", interrupted, "abandoned", abandoned, "disposed", disposed)
+                .forEach((kind, count) -> FunctionCounter.builder("request.work.avoided", count, LongAdder::sum)
+                        .description("Trabalho de requisições canceladas que deixou de ser feito ou esperado")
+                        .tag("kind", kind)
+                        .register(registry));
+        FunctionCounter.builder("request.work.wasted", wasted, LongAdder::sum)
+                .description("Tarefas que terminaram depois do cancelamento da requisição")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.dispose();
+    }
+}
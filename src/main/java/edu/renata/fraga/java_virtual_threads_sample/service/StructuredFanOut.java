@@ -0,0 +1,124 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.EndpointAttribution;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Fork/join com escopo estruturado sobre Virtual Threads: cada item roda na
+ * sua própria virtual thread, o escopo não termina antes de todas as threads,
+ * a primeira falha (ou o deadline) cancela as demais e um semáforo limita a
+ * concorrência - a permissão é obtida antes do fork, então nunca existem mais
+ * que maxConcurrency threads por escopo. Equivalente ao StructuredTaskScope.ShutdownOnFailure sem
+ * depender de preview features do Java 21.
+ */
+@Component
+public class StructuredFanOut {
+
+    private final int maxConcurrency;
+    private final int maxCount;
+    private final Duration deadline;
+
+    public StructuredFanOut(
+            @Value("${demo.structured.max-concurrency:100}") int maxConcurrency,
+            @Value("${demo.structured.max-count:2000}") int maxCount,
+            @Value("${demo.structured.deadline-ms:5000}") long deadlineMs) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxCount = maxCount;
+        this.deadline = Duration.ofMillis(deadlineMs);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Executa task(0..count-1) com o deadline padrão (ou o tempo restante da
+     * requisição, se menor), preservando a ordem dos índices no resultado
+     */
+    public <T> List<T> forkAll(int count, IntFunction<T> task) {
+        return forkAll(count, task, RequestDeadline.limit(deadline));
+    }
+
+    public <T> List<T> forkAll(int count, IntFunction<T> task, Duration deadline) {
+        // Acima de ~maxConcurrency * deadline / latência o fan-out nunca termina no prazo:
+        // 400 na validação em vez de 504 depois de segurar as threads até o deadline
+        if (count > maxCount) {
+            throw new InvalidPersonRequestException("count do fan-out estruturado deve ser no máximo "
+                    + maxCount + ": " + count);
+        }
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        try (ExecutorService scope = VirtualThreads.newThreadPerTaskExecutor("fan-out-")) {
+            CompletionService<T> completion = new ExecutorCompletionService<>(scope);
+            List<Future<T>> futures = new ArrayList<>(count);
+            String endpoint = EndpointAttribution.current();
+            RequestDeadline requestDeadline = RequestDeadline.current();
+            int completed = 0;
+
+            try {
+                for (int i = 0; i < count; i++) {
+                    // Sem permissão não há fork: as threads não ficam paradas no semáforo
+                    if (!permits.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        scope.shutdownNow();
+                        throw new DeadlineExceededException(deadline);
+                    }
+                    int index = i;
+                    futures.add(completion.submit(() -> {
+                        try (EndpointAttribution.Scope ignored = EndpointAttribution.bind(endpoint)) {
+                            // Cancelamento da requisição interrompe o fork
+                            return requestDeadline == null ? task.apply(index) : requestDeadline.run(() -> task.apply(index));
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                    // Fail-fast também durante os forks
+                    for (Future<T> done; (done = completion.poll()) != null; completed++) {
+                        done.get();
+                    }
+                }
+                for (; completed < count; completed++) {
+                    Future<T> done = completion.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        scope.shutdownNow();
+                        throw new DeadlineExceededException(deadline);
+                    }
+                    done.get(); // Propaga a primeira falha (fail-fast)
+                }
+            } catch (ExecutionException e) {
+                scope.shutdownNow();
+                if (requestDeadline != null && requestDeadline.isCancelled()) {
+                    throw requestDeadline.exception();
+                }
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                scope.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+
+            return futures.stream()
+                    .map(Future::resultNow)
+                    .toList();
+        }
+    }
+}
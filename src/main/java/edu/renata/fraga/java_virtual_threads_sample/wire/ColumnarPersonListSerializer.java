@@ -0,0 +1,70 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serializa listas de Person como struct-of-arrays: os nomes dos campos
+ * aparecem uma vez só em vez de uma vez por pessoa, e colunas homogêneas
+ * (ids, idades) comprimem melhor. Outras listas saem como arrays normais.
+ * Registrado apenas no ObjectMapper do formato colunar.
+ */
+public class ColumnarPersonListSerializer extends StdSerializer<List<?>> {
+
+    public ColumnarPersonListSerializer() {
+        super(List.class, false);
+    }
+
+    @Override
+    public void serialize(List<?> list, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (list.isEmpty() || !(list.get(0) instanceof Person)) {
+            generator.writeStartArray(list, list.size());
+            for (Object element : list) {
+                provider.defaultSerializeValue(element, generator);
+            }
+            generator.writeEndArray();
+            return;
+        }
+
+        int size = list.size();
+        generator.writeStartObject(list);
+        generator.writeNumberField("size", size);
+
+        generator.writeArrayFieldStart("id");
+        for (Object person : list) {
+            generator.writeNumber(((Person) person).id());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("name");
+        for (Object person : list) {
+            generator.writeString(((Person) person).name());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("email");
+        for (Object person : list) {
+            generator.writeString(((Person) person).email());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("age");
+        for (Object person : list) {
+            generator.writeNumber(((Person) person).age());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("city");
+        for (Object person : list) {
+            generator.writeString(((Person) person).city());
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,46 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Encoder WebFlux para application/x-protobuf (mesma codificação e mesma
+ * restrição a PersonsResponse do converter MVC). O tipo avaliado é o declarado
+ * no handler, então as rotas devolvem Mono&lt;PersonsResponse&gt;
+ */
+public class PersonProtobufEncoder extends AbstractEncoder<Object> {
+
+    public PersonProtobufEncoder() {
+        super(WireFormats.PROTOBUF);
+    }
+
+    @Override
+    public boolean canEncode(@NonNull ResolvableType elementType, @Nullable MimeType mimeType) {
+        return PersonsResponse.class.isAssignableFrom(elementType.toClass())
+                && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    @NonNull
+    public Flux<DataBuffer> encode(@NonNull Publisher<?> inputStream, @NonNull DataBufferFactory bufferFactory,
+            @NonNull ResolvableType elementType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return Flux.from(inputStream)
+                .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    @NonNull
+    public DataBuffer encodeValue(@NonNull Object value, @NonNull DataBufferFactory bufferFactory,
+            @NonNull ResolvableType valueType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return bufferFactory.wrap(PersonProtobufWriter.encode(value));
+    }
+}
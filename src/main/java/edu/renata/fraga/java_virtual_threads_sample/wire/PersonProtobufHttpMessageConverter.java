@@ -0,0 +1,44 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Converter MVC (somente escrita) para application/x-protobuf. Só aceita
+ * PersonsResponse: os demais corpos ficam para os converters JSON (ou 406)
+ */
+public class PersonProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public PersonProtobufHttpMessageConverter() {
+        super(WireFormats.PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return PersonsResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected Object readInternal(@NonNull Class<?> clazz, @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Leitura de application/x-protobuf não suportada", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Object body, @NonNull HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = PersonProtobufWriter.encode(body);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,194 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Codificação manual no wire format do Protobuf, sem gerar código a partir do
+ * .proto. Cada pessoa é um registro length-delimited (varint com o tamanho +
+ * mensagem) dentro do envelope PersonsResponse de src/main/proto/persons.proto
+ * (approach = 1, count = 2, execution_time_ms = 3, persons = 4, error = 5 e os
+ * campos de thread, paginação e deadline de 6 a 15).
+ *
+ * Nada é descartado em silêncio: chave sem campo no .proto, elemento que não
+ * é Person ou valor do tipo errado lançam IllegalArgumentException.
+ *
+ * Não é thread-safe: uma instância por resposta.
+ */
+public final class PersonProtobufWriter {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    // Chaves do JSON com campo no PersonsResponse (totalCount vai para count)
+    private static final Set<String> RESPONSE_FIELDS = Set.of(
+            "approach", "count", "totalCount", "executionTimeMs", "persons", "error",
+            "threadInfo", "initialThreadInfo", "finalThreadInfo", "timestamp",
+            "batches", "countPerBatch", "limit", "hasMore", "nextCursor", "deadlineMs");
+
+    private byte[] buffer;
+    private int position;
+
+    // Reaproveitado para medir cada pessoa antes de escrevê-la no envelope
+    private PersonProtobufWriter scratch;
+
+    public PersonProtobufWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Codifica um corpo PersonsResponse (ou Map com as mesmas chaves) ou uma
+     * lista de pessoas (só o campo repeated persons)
+     */
+    public static byte[] encode(Object body) {
+        if (body instanceof Map<?, ?> map) {
+            return encodeResponse(map);
+        }
+        if (body instanceof List<?> list) {
+            List<Person> persons = persons(list);
+            PersonProtobufWriter writer = new PersonProtobufWriter(persons.size() * 48);
+            for (Person person : persons) {
+                writer.writePerson(4, person);
+            }
+            return writer.toByteArray();
+        }
+        throw new IllegalArgumentException("Corpo sem mensagem no persons.proto: " + body.getClass().getName());
+    }
+
+    private static byte[] encodeResponse(Map<?, ?> map) {
+        for (Object key : map.keySet()) {
+            if (!RESPONSE_FIELDS.contains(key)) {
+                throw new IllegalArgumentException("Campo sem correspondente no persons.proto: " + key);
+            }
+        }
+        List<Person> persons = persons(map.get("persons"));
+        // ~40 bytes por pessoa com os nomes/cidades do PersonService
+        PersonProtobufWriter writer = new PersonProtobufWriter(128 + persons.size() * 48);
+        writer.writeString(1, map.get("approach"));
+        writer.writeInt64(2, map.containsKey("count") ? map.get("count") : map.get("totalCount"));
+        writer.writeInt64(3, map.get("executionTimeMs"));
+        for (Person person : persons) {
+            writer.writePerson(4, person);
+        }
+        writer.writeString(5, map.get("error"));
+        writer.writeString(6, map.get("threadInfo"));
+        writer.writeString(7, map.get("initialThreadInfo"));
+        writer.writeString(8, map.get("finalThreadInfo"));
+        writer.writeString(9, map.get("timestamp"));
+        writer.writeInt64(10, map.get("batches"));
+        writer.writeInt64(11, map.get("countPerBatch"));
+        writer.writeInt64(12, map.get("limit"));
+        writer.writeBool(13, map.get("hasMore"));
+        writer.writeString(14, map.get("nextCursor"));
+        writer.writeInt64(15, map.get("deadlineMs"));
+        return writer.toByteArray();
+    }
+
+    public void writePerson(int field, Person person) {
+        if (scratch == null) {
+            scratch = new PersonProtobufWriter(64);
+        }
+        scratch.position = 0;
+        scratch.writeInt64(1, person.id());
+        scratch.writeString(2, person.name());
+        scratch.writeString(3, person.email());
+        scratch.writeInt64(4, person.age());
+        scratch.writeString(5, person.city());
+
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(scratch.position);
+        writeBytes(scratch.buffer, scratch.position);
+    }
+
+    private void writeString(int field, Object value) {
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(bytes.length);
+        writeBytes(bytes, bytes.length);
+    }
+
+    private void writeInt64(int field, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("Campo " + field + " do persons.proto é numérico: " + value);
+        }
+        writeInt64(field, number.longValue());
+    }
+
+    private void writeBool(int field, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Boolean bool)) {
+            throw new IllegalArgumentException("Campo " + field + " do persons.proto é bool: " + value);
+        }
+        if (bool) {
+            writeTag(field, WIRE_VARINT);
+            writeVarint(1);
+        }
+    }
+
+    private void writeInt64(int field, long value) {
+        if (value == 0) {
+            return; // proto3: valor padrão não é escrito
+        }
+        writeTag(field, WIRE_VARINT);
+        writeVarint(value);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, 0, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Person> persons(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        if (!(value instanceof List<?> list)) {
+            throw new IllegalArgumentException("persons do persons.proto é uma lista: " + value.getClass().getName());
+        }
+        for (Object element : list) {
+            if (!(element instanceof Person)) {
+                throw new IllegalArgumentException("persons do persons.proto só aceita Person: "
+                        + (element == null ? "null" : element.getClass().getName()));
+            }
+        }
+        return (List<Person>) list;
+    }
+}
@@ -0,0 +1,22 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Corpo das respostas de lista de pessoas (e dos erros dessas rotas): em JSON
+ * sai igual a qualquer Map, mas é o único corpo que o converter/encoder
+ * application/x-protobuf aceita, porque todas as suas chaves existem no
+ * PersonsResponse do persons.proto. Respostas com outros campos (enriched,
+ * cached, thread-info, diagnóstico) negociam JSON ou 406 em vez de saírem
+ * truncadas em Protobuf.
+ */
+public class PersonsResponse extends LinkedHashMap<String, Object> {
+
+    public PersonsResponse() {
+    }
+
+    public PersonsResponse(Map<String, ?> fields) {
+        super(fields);
+    }
+}
@@ -0,0 +1,29 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos de resposta negociados pelo header Accept (ou ?format= no MVC).
+ * JSON continua sendo o padrão.
+ */
+public final class WireFormats {
+
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /**
+     * Mensagens no wire format do Protobuf (ver src/main/proto/persons.proto)
+     */
+    public static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    /**
+     * JSON em layout colunar: "persons" vira um objeto de arrays (struct-of-arrays).
+     * Sem sufixo +json de propósito: os converters/encoders JSON padrão aceitam
+     * application/*+json e responderiam antes com o layout normal.
+     */
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/x-columnar-json");
+
+    private WireFormats() {
+    }
+}
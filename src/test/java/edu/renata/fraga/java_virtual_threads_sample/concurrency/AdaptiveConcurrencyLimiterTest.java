@@ -0,0 +1,93 @@
+package edu.renata.fraga.java_virtual_threads_sample.concurrency;
+
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.LatencyRecordingBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	@Test
+	void rejectsRequestsAboveTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 2, 1, 10, 0.5, 1_000);
+
+		Optional<AdaptiveConcurrencyLimiter.Permit> first = limiter.tryAcquire();
+		Optional<AdaptiveConcurrencyLimiter.Permit> second = limiter.tryAcquire();
+
+		assertThat(first).isPresent();
+		assertThat(second).isPresent();
+		assertThat(limiter.tryAcquire()).isEmpty();
+		assertThat(limiter.getRejected()).isEqualTo(1);
+
+		first.get().onIgnore();
+		assertThat(limiter.tryAcquire()).isPresent();
+	}
+
+	@Test
+	void dropsShrinkAndSuccessesGrowTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 8, 2, 10, 0.5, 1_000);
+
+		limiter.tryAcquire().orElseThrow().onDropped();
+		assertThat(limiter.getLimit()).isEqualTo(4);
+
+		// Limite em uso (inFlight * 2 >= limite): cada sucesso soma 1
+		List<AdaptiveConcurrencyLimiter.Permit> permits = IntStream.range(0, 2)
+				.mapToObj(i -> limiter.tryAcquire().orElseThrow())
+				.toList();
+		permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+		assertThat(limiter.getLimit()).isEqualTo(5);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void releasesOnlyOnce() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 4, 1, 10, 0.5, 1_000);
+
+		AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+		permit.onDropped();
+		permit.onSuccess();
+
+		assertThat(limiter.getInFlight()).isZero();
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void largeCountRequestsAtLowConcurrencyKeepTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 4, 1, 10, 0.5, 50);
+		PersonBackend backend = new LatencyRecordingBackend(
+				new FixedLatencyBackend(BackendLatencies.ofMillis(5, 5, 5)), limiter::recordBackendLatency);
+
+		// Uma requisição por vez, cada uma com 20 chamadas sequenciais: ~100ms de RTT,
+		// o dobro do limiar, mas cada chamada leva só 5ms
+		for (int request = 0; request < 3; request++) {
+			AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+			for (int call = 0; call < 20; call++) {
+				backend.fetch(PersonBackend.Call.QUICK);
+			}
+			permit.onSuccess();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		assertThat(limiter.getBackendLatencyNanos()).isLessThan(Duration.ofMillis(50).toNanos());
+	}
+
+	@Test
+	void slowBackendCallsShrinkTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 8, 1, 10, 0.5, 50);
+
+		for (int call = 0; call < 20; call++) {
+			limiter.recordBackendLatency(Duration.ofMillis(200).toNanos());
+		}
+		limiter.tryAcquire().orElseThrow().onSuccess();
+
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+}
@@ -0,0 +1,153 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FaultInjectingBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.downstream.DownstreamPersonClient;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ApproachMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.ThreadMetrics;
+import edu.renata.fraga.java_virtual_threads_sample.monitoring.VirtualThreadEventRecorder;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonDatabase;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import edu.renata.fraga.java_virtual_threads_sample.service.OffloadExecutor;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonBatchLoader;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonCache;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonEnricher;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonPagination;
+import edu.renata.fraga.java_virtual_threads_sample.service.PersonService;
+import edu.renata.fraga.java_virtual_threads_sample.service.StructuredFanOut;
+import edu.renata.fraga.java_virtual_threads_sample.config.WireFormatConfig;
+import edu.renata.fraga.java_virtual_threads_sample.wire.WireFormats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Rotas do webflux-hybrid com os codecs do WireFormatConfig: negociação do
+ * Accept e, com o backend sempre falhando, a exceção do PersonService tem que
+ * chegar aos onErrorResume do VirtualThreadHandlers sem o CompletionException
+ * do join em volta (502, não 500)
+ */
+class HybridRouterTest {
+
+	private Scheduler blockingScheduler;
+	private final List<PersonBatchLoader> batchLoaders = new ArrayList<>();
+	private final List<PersonEnricher> enrichers = new ArrayList<>();
+	private WebTestClient client;
+	private WebTestClient failingClient;
+
+	@BeforeEach
+	void setUp() {
+		blockingScheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "test-virtual");
+		PersonBackend backend = new FixedLatencyBackend(BackendLatencies.ofMillis(1, 1, 1));
+		client = client(backend);
+		failingClient = client(new FaultInjectingBackend(backend, 1.0));
+	}
+
+	private WebTestClient client(PersonBackend backend) {
+		PersonBatchLoader batchLoader = new PersonBatchLoader(backend, false, 100, 5, 500);
+		PersonEnricher enricher = new PersonEnricher("inline", 100, 2);
+		batchLoaders.add(batchLoader);
+		enrichers.add(enricher);
+		PersonStore personStore = new PersonStore(false, "", 1);
+		PersonService personService = new PersonService(
+				backend,
+				new OffloadExecutor("test", Executors.newVirtualThreadPerTaskExecutor()),
+				blockingScheduler,
+				new StructuredFanOut(10, 2_000, 5_000),
+				new PersonCache(10_000, 60),
+				batchLoader,
+				enricher,
+				new PersonDatabase(backend, null, null, false, 12_000),
+				new DownstreamPersonClient(backend, new ObjectMapper(), false, "", 0, "http1", "rest-client", 100, 100, 5_000, 10_000),
+				personStore);
+
+		HybridRouter router = new HybridRouter(
+				personService,
+				new ApproachMetrics(new SimpleMeterRegistry()),
+				new ThreadMetrics(blockingScheduler, new VirtualThreadEventRecorder(false, 20, 50, 16), false),
+				new PersonPayloadCache(new ObjectMapper(), 100),
+				new PersonPagination(100, 500, 10_000, 1_000_000, personStore),
+				personStore);
+		HandlerStrategies strategies = HandlerStrategies.builder()
+				.codecs(new WireFormatConfig().wireFormatWebFluxConfigurer(
+						Jackson2ObjectMapperBuilder.json().build())::configureHttpMessageCodecs)
+				.build();
+		return WebTestClient.bindToRouterFunction(router.hybridRoutes(blockingScheduler))
+				.handlerStrategies(strategies)
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		blockingScheduler.dispose();
+		batchLoaders.forEach(PersonBatchLoader::shutdown);
+		enrichers.forEach(PersonEnricher::shutdown);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"application/cbor", "application/x-jackson-smile", "application/x-columnar-json",
+			"application/x-protobuf"})
+	void personsAreEncodedInTheAcceptedFormat(String accept) {
+		MediaType mediaType = MediaType.parseMediaType(accept);
+
+		byte[] body = client.get().uri("/api/hybrid/persons/blocking?count=3")
+				.accept(mediaType)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(mediaType)
+				.expectBody().returnResult().getResponseBody();
+
+		assertThat(body).isNotEmpty();
+		// Nenhum deles é o JSON padrão (objeto começando com '{')
+		assertThat(body[0]).isNotEqualTo((byte) '{');
+	}
+
+	@Test
+	void protobufOfEnrichedPersonsIsNotAcceptable() {
+		client.get().uri("/api/hybrid/persons/enriched?count=3")
+				.accept(WireFormats.PROTOBUF)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+	}
+
+	@Test
+	void jsonStaysTheDefault() {
+		client.get().uri("/api/hybrid/persons?limit=3")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$.persons.length()").isEqualTo(3)
+				.jsonPath("$.hasMore").isEqualTo(true);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"/api/hybrid/persons/cached", "/api/hybrid/persons/preserialized"})
+	void cachedRoutesMapBackendFailuresToBadGateway(String path) {
+		failingClient.get().uri(path + "?count=3")
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.BAD_GATEWAY)
+				.expectBody()
+				.jsonPath("$.error").value(startsWith("Falha simulada"));
+	}
+}
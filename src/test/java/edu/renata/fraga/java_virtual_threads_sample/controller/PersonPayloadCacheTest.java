@@ -0,0 +1,54 @@
+package edu.renata.fraga.java_virtual_threads_sample.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonPayloadCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final PersonPayloadCache cache = new PersonPayloadCache(objectMapper, 5);
+
+	@Test
+	void slicesProduceTheSameJsonAsJackson() throws Exception {
+		// Ids 0-4 vêm do cache, 5-7 são serializados na hora
+		List<Person> persons = IntStream.range(0, 8)
+				.mapToObj(index -> Person.create(index, "Ana Costa", "ana.costa@example.com", 30, "São Luís"))
+				.toList();
+
+		List<byte[]> slices = cache.slices("mvc-preserialized", 12L, persons);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		PersonPayloadCache.writeTo(slices, outputStream);
+
+		JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(Map.of(
+				"approach", "mvc-preserialized",
+				"count", 8,
+				"executionTimeMs", 12L,
+				"persons", persons)));
+		assertThat(objectMapper.readTree(outputStream.toByteArray())).isEqualTo(expected);
+		assertThat(PersonPayloadCache.length(slices)).isEqualTo(outputStream.size());
+	}
+
+	@Test
+	void reusesEncodedBytesForTheSameId() {
+		Person person = Person.create(3, "Ana Costa", "ana.costa@example.com", 30, "São Luís");
+
+		assertThat(cache.encoded(person)).isSameAs(cache.encoded(person));
+	}
+
+	@Test
+	void emptyListIsValidJson() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		PersonPayloadCache.writeTo(cache.slices("mvc-preserialized", 0L, List.of()), outputStream);
+
+		assertThat(objectMapper.readTree(outputStream.toByteArray()).get("persons").isEmpty()).isTrue();
+	}
+}
@@ -0,0 +1,79 @@
+package edu.renata.fraga.java_virtual_threads_sample.downstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownstreamPersonClientTest {
+
+	private DownstreamPersonClient client;
+
+	@AfterEach
+	void tearDown() {
+		client.shutdown();
+	}
+
+	private static Person person(int index) {
+		return Person.create(index, "Nome " + index, "nome@example.com", 30, "Recife");
+	}
+
+	private void start(String protocol, String blockingClient) {
+		client = new DownstreamPersonClient(new FixedLatencyBackend(BackendLatencies.ofMillis(5, 5, 5)),
+				new ObjectMapper(), true, "", 0, protocol, blockingClient, 4, 2, 5_000, 5_000);
+		client.start(DownstreamPersonClientTest::person);
+	}
+
+	@ParameterizedTest
+	@CsvSource({"http1,rest-client,4", "http1,jdk,4", "h2c,rest-client,8", "h2c,jdk,8"})
+	void blockingCallsFromVirtualThreadsShareTheConnectionLimit(String protocol, String blockingClient, int limit)
+			throws Exception {
+		start(protocol, blockingClient);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<Person>> futures = IntStream.range(0, 20)
+					.mapToObj(index -> executor.submit(() -> client.fetch(Call.QUICK, index)))
+					.toList();
+			for (int i = 0; i < futures.size(); i++) {
+				assertThat(futures.get(i).get()).isEqualTo(person(i));
+			}
+		}
+
+		// 20 chamadas de 5ms para `limit` vagas (4 conexões, × 2 streams em h2c): nunca mais que limit em
+		// andamento e as excedentes esperaram por uma vaga
+		Map<String, Object> snapshot = client.snapshot();
+		assertThat(snapshot).containsEntry("blockingCalls", 20L)
+				.containsEntry("blockingInFlight", 0)
+				.containsEntry("blockingMaxInFlight", limit);
+		assertThat((int) snapshot.get("blockingPeakInFlight")).isBetween(1, limit);
+		assertThat((double) snapshot.get("maxAcquireMs")).isGreaterThanOrEqualTo(1.0);
+	}
+
+	@ParameterizedTest
+	@CsvSource({"http1", "h2c"})
+	void reactiveCallsGoThroughWebClient(String protocol) {
+		start(protocol, "rest-client");
+
+		StepVerifier.create(Flux.range(0, 20).flatMapSequential(client::fetchReactive, 8).map(Person::id).collectList())
+				.assertNext(ids -> assertThat(ids).containsExactlyElementsOf(
+						IntStream.range(0, 20).mapToObj(Long::valueOf).toList()))
+				.verifyComplete();
+
+		assertThat(client.snapshot()).containsEntry("reactiveCalls", 20L).containsEntry("errors", 0L);
+	}
+}
@@ -0,0 +1,48 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointAttributionTest {
+
+	// enabled e o onScheduleHook são globais: cada teste começa e termina desligado,
+	// senão o hook vaza para os outros testes da mesma JVM
+	@BeforeEach
+	void setUp() {
+		EndpointAttribution.disable();
+	}
+
+	@AfterEach
+	void tearDown() {
+		EndpointAttribution.disable();
+	}
+
+	@Test
+	void bindRecordsNothingWithoutTheJfrStream() {
+		try (EndpointAttribution.Scope ignored = EndpointAttribution.bind("/api/mvc/persons")) {
+			assertThat(EndpointAttribution.current()).isNull();
+		}
+		assertThat(EndpointAttribution.endpointAt(Thread.currentThread().threadId(), Instant.now())).isNull();
+	}
+
+	@Test
+	void disableDropsEndedBindings() {
+		EndpointAttribution.enable();
+		Instant during;
+		try (EndpointAttribution.Scope ignored = EndpointAttribution.bind("/api/mvc/persons")) {
+			during = Instant.now();
+			assertThat(EndpointAttribution.current()).isEqualTo("/api/mvc/persons");
+		}
+		long threadId = Thread.currentThread().threadId();
+		assertThat(EndpointAttribution.endpointAt(threadId, during)).isEqualTo("/api/mvc/persons");
+
+		EndpointAttribution.disable();
+
+		assertThat(EndpointAttribution.endpointAt(threadId, during)).isNull();
+	}
+}
@@ -0,0 +1,58 @@
+package edu.renata.fraga.java_virtual_threads_sample.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTracerTest {
+
+	@Test
+	void disabledTracerRecordsNothing() {
+		RequestTracer tracer = new RequestTracer(false, 1, 16, false, 1000);
+
+		tracer.trace("stream", 1);
+
+		assertThat(tracer.snapshot(10)).containsEntry("seen", 0L).containsEntry("recorded", 0L);
+		assertThat(tracer.recentEvents(10)).isEmpty();
+	}
+
+	@Test
+	void recentEventsKeepTheNewestWhenTheRingWraps() {
+		RequestTracer tracer = new RequestTracer(true, 1, 16, false, 60_000);
+		try {
+			IntStream.range(0, 40).forEach(id -> tracer.trace("stream", id));
+
+			assertThat(tracer.recentEvents(5))
+					.extracting(RequestTracer.TraceEvent::elementId)
+					.containsExactly(39L, 38L, 37L, 36L, 35L);
+
+			tracer.drain();
+			assertThat(tracer.snapshot(0))
+					.containsEntry("recorded", 40L)
+					.containsEntry("drained", 16L)
+					.containsEntry("dropped", 24L);
+		} finally {
+			tracer.shutdown();
+		}
+	}
+
+	@Test
+	void concurrentEmittersAreSampledWithoutLosingCounts() {
+		RequestTracer tracer = new RequestTracer(true, 10, 1024, false, 60_000);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			IntStream.range(0, 8).forEach(worker -> executor.submit(
+					() -> IntStream.range(0, 10_000).forEach(id -> tracer.trace("stream", id))));
+		}
+		try {
+			assertThat(tracer.snapshot(0)).containsEntry("seen", 80_000L);
+			assertThat((long) tracer.snapshot(0).get("recorded")).isBetween(6_000L, 10_000L);
+			assertThat(tracer.recentEvents(1)).allSatisfy(event -> assertThat(event.virtual()).isTrue());
+		} finally {
+			tracer.shutdown();
+		}
+	}
+}
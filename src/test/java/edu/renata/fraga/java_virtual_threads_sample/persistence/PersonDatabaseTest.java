@@ -0,0 +1,140 @@
+package edu.renata.fraga.java_virtual_threads_sample.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendUnavailableException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BulkheadFullException;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonDatabaseTest {
+
+	private String name;
+	private PersonDatabase database;
+
+	@BeforeEach
+	void setUp() {
+		// JDBC e R2DBC no mesmo banco em memória, como em application.properties
+		name = "persons-" + UUID.randomUUID();
+		database = database(new DriverManagerDataSource(jdbcUrl(), "sa", ""), ConnectionFactories.get(r2dbcUrl()));
+		database.seed(index -> Person.create(index, "Nome " + index, "nome" + index + "@example.com",
+				20 + index % 50, "Recife"));
+	}
+
+	@Test
+	void jdbcLookupReadsSeededRow() {
+		assertThat(database.find(Call.QUICK, 7))
+				.isEqualTo(Person.create(7, "Nome 7", "nome7@example.com", 27, "Recife"));
+	}
+
+	@Test
+	void r2dbcLookupReadsTheSameRowAndWrapsLargeIds() {
+		StepVerifier.create(database.findReactive(PersonDatabase.ROW_CYCLE + 7))
+				.assertNext(person -> assertThat(person)
+						.isEqualTo(Person.create(PersonDatabase.ROW_CYCLE + 7, "Nome 7", "nome7@example.com", 27, "Recife")))
+				.verifyComplete();
+	}
+
+	@Test
+	void exhaustedJdbcPoolFailsAsBulkheadFull() throws Exception {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl(jdbcUrl());
+		config.setUsername("sa");
+		config.setMaximumPoolSize(1);
+		config.setConnectionTimeout(250);
+		try (HikariDataSource pool = new HikariDataSource(config);
+			 java.sql.Connection ignored = pool.getConnection()) {
+			PersonDatabase pooled = database(pool, null);
+
+			assertThatThrownBy(() -> pooled.find(Call.QUICK, 7))
+					.isInstanceOf(BulkheadFullException.class)
+					.hasCauseInstanceOf(SQLTransientConnectionException.class);
+		}
+	}
+
+	@Test
+	void exhaustedR2dbcPoolFailsAsBulkheadFull() {
+		ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(r2dbcUrl()))
+				.initialSize(1)
+				.maxSize(1)
+				.maxAcquireTime(Duration.ofMillis(100))
+				.build());
+		try {
+			Connection held = Mono.from(pool.create()).block();
+			PersonDatabase pooled = database(null, pool);
+
+			StepVerifier.create(pooled.findReactive(7))
+					.expectError(BulkheadFullException.class)
+					.verify(Duration.ofSeconds(5));
+
+			Mono.from(held.close()).block();
+			StepVerifier.create(pooled.findReactive(7))
+					.expectNextCount(1)
+					.verifyComplete();
+		} finally {
+			pool.dispose();
+		}
+	}
+
+	@Test
+	void r2dbcDriverErrorsFailAsBackendUnavailable() {
+		// Banco sem seed: a tabela person não existe
+		PersonDatabase empty = database(null,
+				ConnectionFactories.get("r2dbc:h2:mem:///empty-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1"));
+
+		StepVerifier.create(empty.findReactive(7))
+				.expectError(BackendUnavailableException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void rowsMustBeAMultipleOfTheGeneratorCycle() {
+		assertThatThrownBy(() -> new PersonDatabase(null, (DataSource) null, null, false, 10_000))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void snapshotCountsConnectionWaitsPerDriver() {
+		database.find(Call.QUICK, 1);
+		database.findReactive(2).block();
+
+		Map<String, Object> snapshot = database.snapshot();
+		assertThat((Map<String, Object>) snapshot.get("jdbc")).containsEntry("acquires", 1L).containsEntry("queries", 1L);
+		assertThat((Map<String, Object>) snapshot.get("r2dbc")).containsEntry("acquires", 1L).containsEntry("queries", 1L);
+	}
+
+	private PersonDatabase database(DataSource dataSource, ConnectionFactory connectionFactory) {
+		return new PersonDatabase(new FixedLatencyBackend(BackendLatencies.ofMillis(0, 0, 0)), dataSource,
+				connectionFactory, true, PersonDatabase.ROW_CYCLE);
+	}
+
+	private String jdbcUrl() {
+		return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+	}
+
+	private String r2dbcUrl() {
+		return "r2dbc:h2:mem:///" + name + "?options=DB_CLOSE_DELAY=-1";
+	}
+}
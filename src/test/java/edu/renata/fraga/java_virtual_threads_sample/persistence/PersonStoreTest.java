@@ -0,0 +1,131 @@
+package edu.renata.fraga.java_virtual_threads_sample.persistence;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.service.InvalidPersonRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonStoreTest {
+
+	private static final int RECORDS = 5_000;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path directory;
+
+	private PersonStore store;
+
+	private static Person person(int index) {
+		return Person.create(index, "Pessoa " + index, "pessoa" + index + "@example.com", 20 + index % 50,
+				index % 2 == 0 ? "São Luís" : "Goiânia");
+	}
+
+	@BeforeEach
+	void setUp() {
+		store = open();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		store.close();
+	}
+
+	private PersonStore open() {
+		PersonStore personStore = new PersonStore(true, directory.resolve("persons.bin").toString(), RECORDS);
+		personStore.open(PersonStoreTest::person);
+		return personStore;
+	}
+
+	private List<Person> parse(byte[] json) throws Exception {
+		return objectMapper.readValue(json, new TypeReference<>() {
+		});
+	}
+
+	@Test
+	void recordsAreDecodedLazily() {
+		assertThat(store.read(0)).isEqualTo(person(0));
+		assertThat(store.read(4_321)).isEqualTo(person(4_321));
+		assertThat(store.snapshot()).containsEntry("decodedRecords", 2L);
+	}
+
+	@Test
+	void jsonArrayMatchesJacksonAcrossChunks() throws Exception {
+		List<Person> expected = IntStream.range(10, RECORDS).mapToObj(PersonStoreTest::person).toList();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		store.writeJsonArray(10, RECORDS - 10, output);
+		assertThat(parse(output.toByteArray())).isEqualTo(expected);
+
+		String reactive = store.jsonArray(10, RECORDS - 10)
+				.map(buffer -> {
+					String chunk = buffer.toString(StandardCharsets.UTF_8);
+					DataBufferUtils.release(buffer);
+					return chunk;
+				})
+				.reduce(String::concat)
+				.block();
+		assertThat(parse(reactive.getBytes(StandardCharsets.UTF_8))).isEqualTo(expected);
+	}
+
+	@Test
+	void emptyRangeIsAnEmptyArray() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		store.writeJsonArray(RECORDS, 0, output);
+		assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+		assertThat(store.jsonArray(0, 0).count().block()).isEqualTo(1L);
+	}
+
+	@Test
+	void existingFileIsReusedWhenHeaderMatches() throws Exception {
+		Path file = directory.resolve("persons.bin");
+		assertThat(store.snapshot()).containsEntry("generatedAtStartup", true);
+		assertThat(Files.size(file)).isEqualTo(PersonStore.HEADER_BYTES + (long) RECORDS * PersonStore.RECORD_BYTES);
+
+		PersonStore reopened = open();
+		try {
+			assertThat(reopened.snapshot()).containsEntry("generatedAtStartup", false);
+			assertThat(reopened.read(RECORDS - 1)).isEqualTo(person(RECORDS - 1));
+		} finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void fileFromAnotherGeneratorIsRegenerated() throws Exception {
+		PersonStore reopened = new PersonStore(true, directory.resolve("persons.bin").toString(), RECORDS);
+		try {
+			// Mesmo tamanho e layout, dados diferentes: o cabeçalho antigo não pode valer
+			reopened.open(index -> Person.create(index, "Outra " + index, "outra" + index + "@example.com",
+					30, "Natal"));
+
+			assertThat(reopened.snapshot()).containsEntry("generatedAtStartup", true);
+			assertThat(reopened.read(7).city()).isEqualTo("Natal");
+		} finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void rangeOutsideTheStoreIsRejected() {
+		assertThatThrownBy(() -> store.checkRange(RECORDS - 5, 10)).isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> store.read(-1)).isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> new PersonStore(false, "", 1).checkRange(0, 1))
+				.isInstanceOf(InvalidPersonRequestException.class);
+	}
+}
@@ -0,0 +1,78 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend.Call;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonBatchLoaderTest {
+
+	private final PersonBatchLoader loader = new PersonBatchLoader(
+			new FixedLatencyBackend(BackendLatencies.ofMillis(20, 20, 20)), true, 50, 10, 100);
+
+	@AfterEach
+	void tearDown() {
+		loader.shutdown();
+	}
+
+	private static Person person(int index) {
+		return Person.create(index, "Nome " + index, "nome@example.com", 30, "Recife");
+	}
+
+	@Test
+	void concurrentBlockingLoadsShareBatchedCalls() throws Exception {
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<Person>> futures = IntStream.range(0, 200)
+					.mapToObj(i -> executor.submit(() -> loader.load(Call.QUICK, i % 100, PersonBatchLoaderTest::person)))
+					.toList();
+
+			for (int i = 0; i < futures.size(); i++) {
+				assertThat(futures.get(i).get().id()).isEqualTo(i % 100);
+			}
+		}
+
+		assertThat(loader.snapshot()).containsEntry("requests", 200L);
+		assertThat((long) loader.snapshot().get("batches")).isLessThan(20);
+	}
+
+	@Test
+	void reactiveLoadsAreBatchedWithoutBlocking() {
+		StepVerifier.create(Flux.range(0, 120)
+						.flatMapSequential(index -> loader.loadReactive(Call.REACTIVE, index, PersonBatchLoaderTest::person))
+						.map(Person::id)
+						.collectList())
+				.assertNext(ids -> assertThat(ids).containsExactlyElementsOf(
+						IntStream.range(0, 120).mapToObj(Long::valueOf).toList()))
+				.verifyComplete();
+
+		assertThat((long) loader.snapshot().get("batches")).isLessThan(10);
+	}
+
+	@Test
+	void failingMapperOnlyFailsItsOwnIndex() {
+		StepVerifier.create(Flux.range(0, 20)
+						.flatMapSequential(index -> loader.loadReactive(Call.REACTIVE, index, i -> {
+									if (i == 7) {
+										throw new IllegalStateException("mapper");
+									}
+									return person(i);
+								})
+								.map(Person::id)
+								.onErrorReturn(IllegalStateException.class, -1L))
+						.collectList())
+				.assertNext(ids -> assertThat(ids).hasSize(20).containsOnlyOnce(-1L).element(7).isEqualTo(-1L))
+				.verifyComplete();
+	}
+}
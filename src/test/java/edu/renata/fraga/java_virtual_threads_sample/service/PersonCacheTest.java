@@ -0,0 +1,126 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonCacheTest {
+
+	private final PersonCache cache = new PersonCache(100, 60);
+
+	private static Person person(int index) {
+		return Person.create(index, "Nome " + index, "nome@example.com", 30, "Recife");
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<Person>> futures = IntStream.range(0, 50)
+					.mapToObj(i -> executor.submit(() -> cache.get(7, index -> {
+						loads.incrementAndGet();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						return person(index);
+					})))
+					.toList();
+
+			Thread.sleep(50);
+			release.countDown();
+
+			for (Future<Person> future : futures) {
+				assertThat(future.get().id()).isEqualTo(7);
+			}
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void reactiveFacadeSharesEntriesWithBlockingFacade() {
+		cache.get(3, PersonCacheTest::person);
+
+		StepVerifier.create(cache.getReactive(3, index -> Mono.error(new IllegalStateException("não deveria carregar"))))
+				.assertNext(person -> assertThat(person.id()).isEqualTo(3))
+				.verifyComplete();
+		assertThat(cache.snapshot()).containsEntry("hits", 1L);
+	}
+
+	@Test
+	void reactiveMissLoadsOnceForConcurrentSubscribers() {
+		AtomicInteger subscriptions = new AtomicInteger();
+		Mono<Person> slow = Mono.delay(Duration.ofMillis(50))
+				.map(tick -> person(5))
+				.doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+		StepVerifier.create(Mono.zip(cache.getReactive(5, index -> slow), cache.getReactive(5, index -> slow)))
+				.assertNext(pair -> assertThat(pair.getT1()).isEqualTo(pair.getT2()))
+				.verifyComplete();
+		assertThat(subscriptions).hasValue(1);
+	}
+
+	@Test
+	void failedLoadsAreNotCached() {
+		assertThatThrownBy(() -> cache.get(1, index -> {
+			throw new IllegalStateException("backend fora");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(cache.get(1, PersonCacheTest::person).id()).isEqualTo(1);
+	}
+
+	@Test
+	void loaderErrorDoesNotLeaveEntryPending() {
+		assertThatThrownBy(() -> cache.get(2, index -> {
+			throw new StackOverflowError("loader");
+		})).isInstanceOf(StackOverflowError.class);
+
+		assertThat(cache.get(2, PersonCacheTest::person).id()).isEqualTo(2);
+	}
+
+	@Test
+	void waitersRetryWhenTheLoadingRequestIsCancelled() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch cancel = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<Person> initiator = executor.submit(() -> cache.get(9, index -> {
+				loading.countDown();
+				try {
+					cancel.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new DeadlineExceededException(Duration.ofMillis(10));
+			}));
+			loading.await();
+
+			Future<Person> waiter = executor.submit(() -> cache.get(9, PersonCacheTest::person));
+			CompletableFuture<Person> reactiveWaiter = cache.getReactive(9, index -> Mono.just(person(index)))
+					.toFuture();
+			Thread.sleep(50);
+			cancel.countDown();
+
+			assertThat(waiter.get().id()).isEqualTo(9);
+			assertThat(reactiveWaiter.get().id()).isEqualTo(9);
+			assertThatThrownBy(initiator::get).hasCauseInstanceOf(DeadlineExceededException.class);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonEnricherTest {
+
+	private final PersonEnricher enricher = new PersonEnricher("fork-join", 50, 2);
+
+	private final List<Person> persons = IntStream.range(0, 64)
+			.mapToObj(index -> Person.create(index, "Nome " + index, "nome" + index + "@example.com", 10 + index, "Recife"))
+			.toList();
+
+	@AfterEach
+	void tearDown() {
+		enricher.shutdown();
+	}
+
+	@Test
+	void allStrategiesProduceTheSameOrderedResult() {
+		List<EnrichedPerson> inline = enricher.enrichAll(persons, PersonEnricher.Strategy.INLINE);
+
+		assertThat(enricher.enrichAll(persons, PersonEnricher.Strategy.FORK_JOIN)).isEqualTo(inline);
+		assertThat(enricher.enrichAll(persons, PersonEnricher.Strategy.REACTOR_PARALLEL)).isEqualTo(inline);
+		assertThat(inline).extracting(enriched -> enriched.person().id())
+				.containsExactlyElementsOf(persons.stream().map(Person::id).toList());
+	}
+
+	@Test
+	void reactorParallelKeepsTheInputOrderOfUnsortedIds() {
+		List<Person> shuffled = new ArrayList<>(persons);
+		Collections.shuffle(shuffled, new Random(42));
+
+		List<EnrichedPerson> enriched = enricher.enrichAll(shuffled, PersonEnricher.Strategy.REACTOR_PARALLEL);
+
+		assertThat(enriched).extracting(EnrichedPerson::person).containsExactlyElementsOf(shuffled);
+		assertThat(enriched).isEqualTo(enricher.enrichAll(shuffled, PersonEnricher.Strategy.INLINE));
+	}
+
+	@Test
+	void validationFlagsMinorsAndScoresStayInRange() {
+		List<EnrichedPerson> enriched = enricher.enrichAll(persons, PersonEnricher.Strategy.INLINE);
+
+		assertThat(enriched.get(0).valid()).isFalse(); // 10 anos
+		assertThat(enriched.get(20).valid()).isTrue();
+		assertThat(enriched).allSatisfy(person -> assertThat(person.score()).isBetween(0, 99));
+	}
+
+	@Test
+	void strategyNamesAreParsedFromRequestParameters() {
+		assertThat(PersonEnricher.Strategy.parse("reactor-parallel")).isEqualTo(PersonEnricher.Strategy.REACTOR_PARALLEL);
+		assertThatThrownBy(() -> PersonEnricher.Strategy.parse("gpu"))
+				.isInstanceOf(InvalidPersonRequestException.class);
+	}
+}
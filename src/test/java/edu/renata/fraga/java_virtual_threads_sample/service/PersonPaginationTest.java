@@ -0,0 +1,64 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import edu.renata.fraga.java_virtual_threads_sample.model.PersonPage;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonPaginationTest {
+
+	private final PersonPagination pagination = new PersonPagination(10, 50, 1000, 25, new PersonStore(false, "", 1));
+
+	@Test
+	void cursorsWalkTheWholeRangeAndStopAtTheEnd() {
+		PersonPagination.Range first = pagination.range(null, null);
+		assertThat(first).isEqualTo(new PersonPagination.Range(0, 10, 10));
+
+		PersonPage firstPage = pagination.page(first, List.of());
+		PersonPagination.Range second = pagination.range(firstPage.nextCursor(), 20);
+		assertThat(second).isEqualTo(new PersonPagination.Range(10, 25, 20));
+
+		PersonPage lastPage = pagination.page(second, List.of());
+		assertThat(lastPage.hasMore()).isFalse();
+		assertThat(lastPage.nextCursor()).isNull();
+	}
+
+	@Test
+	void rejectsInvalidCursorsAndLimits() {
+		assertThatThrownBy(() -> pagination.range("nao-e-um-cursor", null))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.range(pagination.encodeCursor(26), null))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.range(null, 51))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.range(null, 0))
+				.isInstanceOf(InvalidPersonRequestException.class);
+	}
+
+	@Test
+	void capsFullListRequestsWithoutOverflow() {
+		pagination.checkCount(1000);
+		pagination.checkCount(10, 100);
+
+		assertThatThrownBy(() -> pagination.checkCount(1001))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.checkCount(65536, 65536))
+				.isInstanceOf(InvalidPersonRequestException.class);
+	}
+
+	@Test
+	void rejectsNegativeStreamCountsAndNonPositiveConcurrency() {
+		pagination.checkStreamCount(0);
+		pagination.checkStreamCount(1_000_000);
+		pagination.checkConcurrency(1);
+
+		assertThatThrownBy(() -> pagination.checkStreamCount(-1))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.checkConcurrency(0))
+				.isInstanceOf(InvalidPersonRequestException.class);
+	}
+}
@@ -0,0 +1,160 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.java_virtual_threads_sample.backend.BackendLatencies;
+import edu.renata.fraga.java_virtual_threads_sample.backend.FixedLatencyBackend;
+import edu.renata.fraga.java_virtual_threads_sample.backend.PersonBackend;
+import edu.renata.fraga.java_virtual_threads_sample.downstream.DownstreamPersonClient;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonDatabase;
+import edu.renata.fraga.java_virtual_threads_sample.persistence.PersonStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Os pipelines reativos com I/O blocking devem rodar no scheduler blocking,
+ * nunca em Schedulers.parallel(). BlockHound é instalado pelo
+ * blockhound-junit-platform em todos os testes.
+ */
+class PersonServiceBlockingTest {
+
+	private Scheduler blockingScheduler;
+	private PersonBatchLoader batchLoader;
+	private PersonEnricher enricher;
+	private PersonService personService;
+
+	@TempDir
+	Path directory;
+
+	@BeforeEach
+	void setUp() {
+		blockingScheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "test-virtual");
+		PersonBackend backend = new FixedLatencyBackend(BackendLatencies.ofMillis(1, 1, 1));
+		batchLoader = new PersonBatchLoader(backend, false, 100, 5, 500);
+		enricher = new PersonEnricher("inline", 100, 2);
+		personService = personService(backend, new PersonStore(false, "", 1));
+	}
+
+	private PersonService personService(PersonBackend backend, PersonStore personStore) {
+		return new PersonService(
+				backend,
+				new OffloadExecutor("test", Executors.newVirtualThreadPerTaskExecutor()),
+				blockingScheduler,
+				new StructuredFanOut(10, 2_000, 5_000),
+				new PersonCache(10_000, 60),
+				batchLoader,
+				enricher,
+				new PersonDatabase(backend, null, null, false, 12_000),
+				new DownstreamPersonClient(backend, new ObjectMapper(), false, "", 0, "http1", "rest-client", 100, 100, 5_000, 10_000),
+				personStore);
+	}
+
+	@AfterEach
+	void tearDown() {
+		blockingScheduler.dispose();
+		batchLoader.shutdown();
+		enricher.shutdown();
+	}
+
+	@Test
+	void blockHoundRejectsSleepOnParallelScheduler() {
+		StepVerifier.create(Mono.fromRunnable(() -> {
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				})
+				.subscribeOn(Schedulers.parallel()))
+				.expectError(BlockingOperationError.class)
+				.verify();
+	}
+
+	@Test
+	void parallelBatchesRunBlockingWorkOnBlockingScheduler() {
+		StepVerifier.create(personService.getPersonsReactiveList(3, 4))
+				.assertNext(persons -> assertThat(persons).hasSize(12))
+				.verifyComplete();
+	}
+
+	@Test
+	void intensiveListRunsBlockingWorkOnBlockingScheduler() {
+		StepVerifier.create(personService.getPersonsReactiveListIntensive(5))
+				.assertNext(persons -> assertThat(persons).hasSize(5))
+				.verifyComplete();
+	}
+
+	@Test
+	void schedulerVariantsDoNotBlockParallelWorkers() {
+		StepVerifier.create(personService.getPersonsReactiveWithScheduler(5, false))
+				.expectNextCount(5)
+				.verifyComplete();
+		StepVerifier.create(personService.getPersonsReactiveListWithScheduler(5, true))
+				.assertNext(persons -> assertThat(persons).hasSize(5))
+				.verifyComplete();
+	}
+
+	@Test
+	void concurrentStreamStaysNonBlocking() {
+		StepVerifier.create(personService.getPersonsReactiveConcurrent(20, 4))
+				.expectNextCount(20)
+				.verifyComplete();
+	}
+
+	@Test
+	void reactivePageKeepsIndexOrderWithoutBlocking() {
+		StepVerifier.create(personService.getPersonsRangeReactive(100, 5, 2).map(Person::id))
+				.expectNext(100L, 101L, 102L, 103L, 104L)
+				.verifyComplete();
+	}
+
+	@Test
+	void enrichmentStrategiesKeepOrderWithoutBlockingParallelWorkers() {
+		for (PersonEnricher.Strategy strategy : PersonEnricher.Strategy.values()) {
+			StepVerifier.create(personService.getPersonsEnrichedReactive(20, 4, strategy)
+							.map(enriched -> enriched.person().id())
+							.collectList())
+					.assertNext(ids -> assertThat(ids).isSorted().hasSize(20))
+					.verifyComplete();
+		}
+	}
+
+	@Test
+	void enabledStoreBacksThePersonEndpoints() {
+		PersonBackend backend = new FixedLatencyBackend(BackendLatencies.ofMillis(1, 1, 1));
+		PersonStore store = new PersonStore(true, directory.resolve("persons.bin").toString(), 50);
+		PersonService storeBacked = personService(backend, store);
+		storeBacked.initializeSources();
+
+		assertThat(storeBacked.getPersonsStructured(20)).isEqualTo(personService.getPersonsStructured(20));
+		StepVerifier.create(storeBacked.getPersonsReactiveConcurrent(20, 4).collectList())
+				.assertNext(persons -> assertThat(persons).isEqualTo(personService.getPersonsStructured(20)))
+				.verifyComplete();
+		assertThat(store.snapshot()).containsEntry("decodedRecords", 40L);
+
+		PersonPagination pagination = new PersonPagination(10, 50, 1000, 50, store);
+		pagination.checkCount(50);
+		assertThatThrownBy(() -> pagination.checkCount(51))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.checkCount(6, 10))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> pagination.checkStreamCount(51))
+				.isInstanceOf(InvalidPersonRequestException.class);
+		assertThatThrownBy(() -> new PersonPagination(10, 50, 1000, 51, store))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("demo.pagination.total-persons");
+	}
+}
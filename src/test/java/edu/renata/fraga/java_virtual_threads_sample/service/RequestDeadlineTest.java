@@ -0,0 +1,109 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestDeadlineTest {
+
+	private final RequestDeadlines deadlines = new RequestDeadlines("X-Request-Timeout-Ms", 0, 30000);
+
+	@AfterEach
+	void tearDown() {
+		deadlines.shutdown();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Long> avoidedWork() {
+		return (Map<String, Long>) deadlines.snapshot().get("avoidedWork");
+	}
+
+	@Test
+	void headerIsParsedAndCappedAtMaximum() {
+		assertThat(deadlines.start("250").getTimeout()).isEqualTo(Duration.ofMillis(250));
+		assertThat(deadlines.start("999999").getTimeout()).isEqualTo(Duration.ofSeconds(30));
+		assertThat(deadlines.start("abc").getTimeout()).isNull();
+		assertThat(deadlines.start(null).getTimeout()).isNull();
+	}
+
+	@Test
+	void cancellationInterruptsRunningTaskAndReleasesWaiters() throws Exception {
+		RequestDeadline deadline = deadlines.start(null);
+		CountDownLatch started = new CountDownLatch(1);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			CompletableFuture<String> future;
+			try (RequestDeadline.Scope ignored = deadline.bind()) {
+				future = RequestDeadline.track(CompletableFuture.supplyAsync(RequestDeadline.wrap(() -> {
+					started.countDown();
+					try {
+						Thread.sleep(Duration.ofSeconds(10));
+					} catch (InterruptedException e) {
+						throw new CancellationException("interrompida");
+					}
+					return "tarde demais";
+				}), executor));
+			}
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+			deadline.cancel(RequestDeadline.Reason.CLIENT_GONE);
+
+			assertThatThrownBy(future::join).isInstanceOf(CancellationException.class);
+		}
+		assertThat(avoidedWork()).containsEntry("abandonedFutures", 1L).containsEntry("interruptedTasks", 1L);
+		assertThat(deadlines.snapshot().get("wastedTasks")).isEqualTo(0L);
+	}
+
+	@Test
+	void tasksDoNotStartAfterCancellation() {
+		RequestDeadline deadline = deadlines.start(null);
+		deadline.cancel(RequestDeadline.Reason.ASYNC_TIMEOUT);
+
+		try (RequestDeadline.Scope ignored = deadline.bind()) {
+			assertThatThrownBy(RequestDeadline::checkCurrent).isInstanceOf(CancellationException.class);
+		}
+		assertThatThrownBy(() -> deadline.run(() -> "nunca"))
+				.isInstanceOf(CancellationException.class);
+		assertThat(avoidedWork()).containsEntry("skippedTasks", 2L);
+	}
+
+	@Test
+	void requestsWithoutTimeoutAreStillCancelledPerRequest() {
+		RequestDeadline deadline = deadlines.start(null);
+		RequestDeadline other = deadlines.start(null);
+
+		StepVerifier.create(deadline.apply(Flux.interval(Duration.ofMillis(30))))
+				.expectNextCount(2)
+				.then(() -> deadline.cancel(RequestDeadline.Reason.CLIENT_GONE))
+				.expectError(CancellationException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(other).isNotSameAs(deadline);
+		assertThat(other.isCancelled()).isFalse();
+		assertThat(avoidedWork()).containsEntry("disposedSubscriptions", 1L);
+	}
+
+	@Test
+	void expiredDeadlineDisposesReactivePipeline() {
+		RequestDeadline deadline = deadlines.start("100");
+
+		StepVerifier.create(deadline.apply(Flux.interval(Duration.ofMillis(30))))
+				.thenConsumeWhile(tick -> true)
+				.expectError(DeadlineExceededException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(avoidedWork()).containsEntry("disposedSubscriptions", 1L);
+	}
+}
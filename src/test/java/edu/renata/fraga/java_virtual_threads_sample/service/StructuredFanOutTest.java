@@ -0,0 +1,52 @@
+package edu.renata.fraga.java_virtual_threads_sample.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StructuredFanOutTest {
+
+	private final StructuredFanOut fanOut = new StructuredFanOut(4, 100, 5_000);
+
+	@Test
+	void forksNeverExceedMaxConcurrencyAndKeepOrder() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+
+		List<Integer> results = fanOut.forkAll(40, index -> {
+			peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+			return index;
+		});
+
+		assertThat(results).containsExactlyElementsOf(IntStream.range(0, 40).boxed().toList());
+		assertThat(peak.get()).isLessThanOrEqualTo(4);
+	}
+
+	@Test
+	void countsAboveTheFanOutCapAreRejected() {
+		assertThatThrownBy(() -> fanOut.forkAll(101, index -> index))
+				.isInstanceOf(InvalidPersonRequestException.class);
+	}
+
+	@Test
+	void firstFailureCancelsTheRest() {
+		assertThatThrownBy(() -> fanOut.forkAll(50, index -> {
+			if (index == 3) {
+				throw new IllegalStateException("fork " + index);
+			}
+			return index;
+		})).isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,142 @@
+package edu.renata.fraga.java_virtual_threads_sample.wire;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import edu.renata.fraga.java_virtual_threads_sample.model.EnrichedPerson;
+import edu.renata.fraga.java_virtual_threads_sample.model.Person;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WireFormatsTest {
+
+	private static final List<Person> PERSONS = List.of(
+			Person.create(1, "Ana", "ana@example.com", 30, "Recife"),
+			Person.create(2, "João", "joao@example.com", 41, "São Paulo"));
+
+	@Test
+	void protobufEncodesPersonsAsLengthDelimitedRecords() {
+		byte[] person = PersonProtobufWriter.encode(List.of(PERSONS.get(0)));
+
+		// campo 4 (length-delimited) = tag 0x22, depois o tamanho da mensagem
+		assertThat(person[0]).isEqualTo((byte) 0x22);
+		assertThat(person[1]).isEqualTo((byte) (person.length - 2));
+		// id = 1: tag 0x08 + varint 1; name: tag 0x12 + tamanho 3 + "Ana"
+		assertThat(person[2]).isEqualTo((byte) 0x08);
+		assertThat(person[3]).isEqualTo((byte) 1);
+		assertThat(person[4]).isEqualTo((byte) 0x12);
+		assertThat(person[5]).isEqualTo((byte) 3);
+		assertThat(new String(person, 6, 3, StandardCharsets.UTF_8)).isEqualTo("Ana");
+	}
+
+	@Test
+	void protobufEnvelopeIsSmallerThanJson() throws Exception {
+		Map<String, Object> body = Map.of("approach", "mvc-blocking", "count", 2, "persons", PERSONS);
+
+		byte[] protobuf = PersonProtobufWriter.encode(body);
+
+		assertThat(protobuf[0]).isEqualTo((byte) 0x0A); // campo 1 (approach)
+		assertThat(protobuf.length).isLessThan(new ObjectMapper().writeValueAsBytes(body).length);
+	}
+
+	@Test
+	void protobufIsNegotiatedOnlyForPersonsResponse() {
+		PersonProtobufHttpMessageConverter converter = new PersonProtobufHttpMessageConverter();
+		PersonProtobufEncoder encoder = new PersonProtobufEncoder();
+
+		assertThat(converter.canWrite(PersonsResponse.class, WireFormats.PROTOBUF)).isTrue();
+		assertThat(encoder.canEncode(ResolvableType.forClass(PersonsResponse.class), WireFormats.PROTOBUF)).isTrue();
+		// Corpos enriched/cached/thread-info são Map.of: ficam para o JSON (ou 406)
+		Map<String, Object> enriched = Map.of("approach", "mvc-enriched", "strategy", "inline",
+				"persons", List.of(new EnrichedPerson(PERSONS.get(0), 7, "abc", true)));
+		assertThat(converter.canWrite(enriched.getClass(), WireFormats.PROTOBUF)).isFalse();
+		assertThat(converter.canWrite(List.class, WireFormats.PROTOBUF)).isFalse();
+		assertThat(encoder.canEncode(ResolvableType.forClassWithGenerics(Map.class, String.class, Object.class),
+				WireFormats.PROTOBUF)).isFalse();
+	}
+
+	@Test
+	void protobufRejectsEnrichedResponsesInsteadOfDroppingFields() {
+		PersonsResponse enrichedPersons = new PersonsResponse(Map.of("approach", "mvc-enriched",
+				"persons", List.of(new EnrichedPerson(PERSONS.get(0), 7, "abc", true))));
+		PersonsResponse strategy = new PersonsResponse(Map.of("approach", "mvc-enriched",
+				"strategy", "inline", "persons", PERSONS));
+
+		assertThatThrownBy(() -> PersonProtobufWriter.encode(enrichedPersons))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("EnrichedPerson");
+		assertThatThrownBy(() -> PersonProtobufWriter.encode(strategy))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("strategy");
+	}
+
+	@Test
+	void protobufKeepsEveryFieldOfPagedResponses() {
+		PersonsResponse page = new PersonsResponse();
+		page.put("approach", "mvc-page");
+		page.put("persons", PERSONS);
+		page.put("count", PERSONS.size());
+		page.put("limit", 2);
+		page.put("hasMore", true);
+		page.put("nextCursor", "Mg");
+		page.put("executionTimeMs", 12L);
+		page.put("threadInfo", "VirtualThread[#42]");
+		page.put("timestamp", LocalDateTime.of(2025, 8, 16, 23, 24, 48));
+
+		byte[] protobuf = PersonProtobufWriter.encode(page);
+
+		// Um campo do persons.proto por chave do JSON (persons repetido uma vez por pessoa)
+		assertThat(fieldNumbers(protobuf)).containsExactly(1, 2, 3, 4, 4, 6, 9, 12, 13, 14);
+		assertThat(new String(protobuf, StandardCharsets.UTF_8)).contains("Mg", "2025-08-16T23:24:48");
+	}
+
+	@Test
+	void columnarSerializerWritesOneArrayPerField() throws Exception {
+		ObjectMapper columnar = new ObjectMapper().registerModule(
+				new SimpleModule().addSerializer(new ColumnarPersonListSerializer()));
+
+		JsonNode persons = columnar.readTree(columnar.writeValueAsBytes(Map.of("persons", PERSONS))).get("persons");
+
+		assertThat(persons.get("size").asInt()).isEqualTo(2);
+		assertThat(persons.get("id").toString()).isEqualTo("[1,2]");
+		assertThat(persons.get("city").toString()).isEqualTo("[\"Recife\",\"São Paulo\"]");
+		assertThat(columnar.writeValueAsString(List.of("a", "b"))).isEqualTo("[\"a\",\"b\"]");
+	}
+
+	/**
+	 * Números dos campos de primeiro nível, na ordem em que aparecem
+	 */
+	private static List<Integer> fieldNumbers(byte[] message) {
+		List<Integer> fields = new ArrayList<>();
+		int[] position = {0};
+		while (position[0] < message.length) {
+			long tag = readVarint(message, position);
+			fields.add((int) (tag >>> 3));
+			long value = readVarint(message, position);
+			if ((tag & 0x7) == 2) {
+				position[0] += (int) value;
+			}
+		}
+		return fields;
+	}
+
+	private static long readVarint(byte[] message, int[] position) {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = message[position[0]++];
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+}